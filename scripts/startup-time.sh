@@ -0,0 +1,115 @@
+#!/usr/bin/env bash
+#
+# Mide el arranque de SpringbootAopApplication en cada variante de empaquetado:
+# el tiempo que informa Spring ("Started ... in X seconds") y el tiempo desde que
+# se lanza el proceso hasta la primera respuesta 200 de GET /greeting, que
+# incluye la JVM, el contexto, Tomcat y la primera llamada por los aspectos.
+#
+# Uso: scripts/startup-time.sh [-n ejecuciones] [variante...]
+#
+#   jar       java -jar target/springboot-aop-*.jar          (./mvnw package)
+#   cds       jar extraído con el archivo AppCDS, sin AOT     (./mvnw -Paot package)
+#   aot       jar extraído con spring.aot.enabled=true        (./mvnw -Paot package)
+#   aot-cds   AOT y AppCDS                                    (./mvnw -Paot package)
+#   native    target/springboot-aop                           (./mvnw -Pnative native:compile)
+#
+# Sin variantes mide las que estén construidas. Cada resultado es la mediana de
+# las ejecuciones (5 por defecto); las opciones de la JVM se pueden añadir con
+# JAVA_OPTS.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=5
+if [[ "${1:-}" == "-n" ]]; then
+    RUNS="$2"
+    shift 2
+fi
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR=$(ls target/springboot-aop-*.jar 2>/dev/null | head -n 1 || true)
+CDS_JAR=$(ls target/cds/springboot-aop-*.jar 2>/dev/null | head -n 1 || true)
+CDS_ARCHIVE=target/cds/application.jsa
+NATIVE=target/springboot-aop
+PORT="${PORT:-18081}"
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+available() {
+    case "$1" in
+        jar) [[ -n "$JAR" ]] ;;
+        cds | aot-cds) [[ -n "$CDS_JAR" && -f "$CDS_ARCHIVE" ]] ;;
+        aot) [[ -n "$CDS_JAR" ]] ;;
+        native) [[ -x "$NATIVE" ]] ;;
+        *) echo "Variante desconocida: $1" >&2; exit 2 ;;
+    esac
+}
+
+# Deja en CMD la línea de comandos de la variante
+command_for() {
+    local args=(--server.port="$PORT" --spring.main.banner-mode=off)
+    local java=("$JAVA" ${JAVA_OPTS:-})
+    case "$1" in
+        jar) CMD=("${java[@]}" -jar "$JAR" "${args[@]}") ;;
+        cds) CMD=("${java[@]}" -XX:SharedArchiveFile="$CDS_ARCHIVE" -Xlog:cds=off -jar "$CDS_JAR" "${args[@]}") ;;
+        aot) CMD=("${java[@]}" -Dspring.aot.enabled=true -jar "$CDS_JAR" "${args[@]}") ;;
+        aot-cds) CMD=("${java[@]}" -XX:SharedArchiveFile="$CDS_ARCHIVE" -Xlog:cds=off -Dspring.aot.enabled=true
+            -jar "$CDS_JAR" "${args[@]}") ;;
+        native) CMD=("$NATIVE" "${args[@]}") ;;
+    esac
+}
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# Una ejecución: imprime "<ms hasta el primer /greeting> <segundos de Spring>"
+measure() {
+    local start pid status started
+    command_for "$1"
+    start=$(now_ms)
+    "${CMD[@]}" > "$LOG" 2>&1 &
+    pid=$!
+    until status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/greeting") && [[ "$status" == 200 ]]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "La variante $1 terminó sin responder:" >&2
+            tail -n 20 "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    local elapsed=$(($(now_ms) - start))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    started=$(sed -n 's/.*Started SpringbootAopApplication in \([0-9.]*\) seconds.*/\1/p' "$LOG")
+    echo "$elapsed ${started:-?}"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+variants=("$@")
+if [[ ${#variants[@]} -eq 0 ]]; then
+    for variant in jar cds aot aot-cds native; do
+        if available "$variant"; then
+            variants+=("$variant")
+        fi
+    done
+fi
+
+printf '%-8s %22s %20s\n' variante "primer /greeting (ms)" "Spring started (s)"
+for variant in "${variants[@]}"; do
+    if ! available "$variant"; then
+        printf '%-8s %22s\n' "$variant" "no construida"
+        continue
+    fi
+    results=()
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(measure "$variant")")
+    done
+    first=$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)
+    spring=$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | grep -v '?' | median || true)
+    printf '%-8s %22s %20s\n' "$variant" "$first" "${spring:-?}"
+done
@@ -0,0 +1,157 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.env.MapPropertySource;
+
+import com.springboot.app.springboot_aop.aop.GreetingAspect;
+import com.springboot.app.springboot_aop.aop.GreetingFooAspect;
+import com.springboot.app.springboot_aop.aop.GreetingFusedAspect;
+import com.springboot.app.springboot_aop.aop.GreetingServicePointcuts;
+import com.springboot.app.springboot_aop.aop.ReactiveInvocationObserver;
+import com.springboot.app.springboot_aop.aop.WovenAspectsPostProcessor;
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderer;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.resilience.ResilienceAspect;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.aop.tracing.SpanRecorder;
+import com.springboot.app.springboot_aop.services.GreetingService;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+/**
+ * Configuraciones de interceptación que se comparan en los benchmarks. Cada una
+ * construye un GreetingService con la misma cadena de proxies que Spring Boot
+ * crea en la aplicación (proxies CGLIB, igual que spring.aop.proxy-target-class
+ * por defecto), pero con un subconjunto distinto de aspectos registrados.
+ *
+ * Con los aspectos tejidos por ajc (mvn -Pajc,benchmark verify) el advice está
+ * dentro de GreetingServiceImpl, así que sólo WOVEN tiene sentido; el resto de
+ * configuraciones no se pueden crear en esa compilación.
+ */
+public enum AdviceSetup {
+
+    /* GreetingServiceImpl sin proxy: la línea base */
+    RAW,
+
+    /*
+     * GreetingServicePointcuts no declara advice, por lo que Spring no crearía
+     * ningún proxy. Se fuerza un proxy con la cadena de interceptores vacía para
+     * medir sólo el coste del proxy.
+     */
+    POINTCUTS,
+
+    /* Sólo GreetingAspect (@Order(2)): cinco advice */
+    GREETING,
+
+    /* Sólo GreetingFooAspect (@Order(1)): dos advice */
+    FOO,
+
+    /* Los dos aspectos, como en la aplicación: siete advice */
+    FULL,
+
+    /* greeting.aop.mode=fused: un único interceptor con la misma salida que FULL */
+    FUSED,
+
+    /* FULL con ResilienceAspect (@Order(-10)) por fuera: @Bulkhead y @CircuitBreaker */
+    RESILIENT,
+
+    /*
+     * Los dos aspectos a través de WovenAspectsPostProcessor: con proxies en la
+     * compilación normal (igual que FULL) y sin proxy en la compilación con ajc
+     */
+    WOVEN;
+
+    public Instance create() {
+        return create(Map.of());
+    }
+
+    /* properties se añaden al entorno de los contextos (no afectan a RAW ni a POINTCUTS) */
+    public Instance create(Map<String, Object> properties) {
+        if (WovenAspectsPostProcessor.isWoven() && this != WOVEN) {
+            throw new IllegalStateException(this + " no se puede medir con los aspectos tejidos por ajc");
+        }
+        switch (this) {
+            case RAW:
+                return new Instance(new GreetingServiceImpl(), null);
+            case POINTCUTS:
+                AspectJProxyFactory factory = new AspectJProxyFactory(new GreetingServiceImpl());
+                factory.setProxyTargetClass(true);
+                factory.addAspect(GreetingServicePointcuts.class);
+                return new Instance(factory.getProxy(), null);
+            case GREETING:
+                return context(properties, "classic", GreetingAspect.class);
+            case FOO:
+                return context(properties, "classic", GreetingFooAspect.class);
+            case FUSED:
+                return context(properties, "fused", GreetingFusedAspect.class);
+            case RESILIENT:
+                /* ResilienceAspect está desactivado por defecto */
+                Map<String, Object> resilient = new HashMap<>(properties);
+                resilient.putIfAbsent("greeting.aop.resilience.enabled", "true");
+                return context(resilient, "classic", ResilienceAspect.class, GreetingFooAspect.class,
+                        GreetingAspect.class);
+            case WOVEN:
+                return context(properties, "classic", WovenAspectsPostProcessor.class, GreetingFooAspect.class,
+                        GreetingAspect.class);
+            default:
+                return context(properties, "classic", GreetingFooAspect.class, GreetingAspect.class);
+        }
+    }
+
+    private static Instance context(Map<String, Object> properties, String mode, Class<?>... aspects) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        /* Las mismas conversiones que Spring Boot para @Value (Duration, enums) */
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        Map<String, Object> environment = new HashMap<>(properties);
+        environment.put("greeting.aop.mode", mode);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", environment));
+        context.register(BenchmarkAopConfig.class, GreetingServicePointcuts.class, GreetingServiceImpl.class,
+                ArgumentRenderer.class, InvocationEventPipeline.class, MethodLatencyRecorder.class,
+                MethodErrorCounter.class, AdviceToggles.class, SpanRecorder.class, InvocationJournal.class,
+                ReactiveInvocationObserver.class);
+        context.register(aspects);
+        context.refresh();
+        return new Instance(context.getBean(GreetingService.class), context);
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class BenchmarkAopConfig {
+    }
+
+    public static final class Instance implements AutoCloseable {
+
+        private final GreetingService service;
+        private final AnnotationConfigApplicationContext context;
+
+        Instance(GreetingService service, AnnotationConfigApplicationContext context) {
+            this.service = service;
+            this.context = context;
+        }
+
+        public GreetingService service() {
+            return service;
+        }
+
+        /* null en RAW y POINTCUTS, que no tienen contexto */
+        public <T> T bean(Class<T> type) {
+            return context != null ? context.getBean(type) : null;
+        }
+
+        @Override
+        public void close() {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.services.GreetingService;
+
+/**
+ * Coste de AdviceToggles en sayHello con los dos aspectos (FULL), el modo
+ * fusionado (FUSED) y los aspectos tejidos o no (WOVEN):
+ *
+ * - ENABLED: nada desactivado, el camino normal; debe costar lo mismo que sin
+ * AdviceToggles (comparar con GreetingServiceAdviceBenchmark).
+ * - DISABLED: todos los advice desactivados; el proxy y las llamadas a los
+ * advice siguen ahí, pero cada advice termina tras una comparación.
+ * - METHOD: todos desactivados sólo para sayHello, el camino lento con la
+ * máscara por método.
+ *
+ * Con los aspectos tejidos por ajc sólo se puede crear WOVEN (-p setup=WOVEN).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdviceToggleBenchmark {
+
+    static {
+        System.setProperty("logback.configurationFile", "logback-benchmark.xml");
+    }
+
+    public enum Toggles {
+        ENABLED, DISABLED, METHOD
+    }
+
+    @Param({ "FULL", "FUSED", "WOVEN" })
+    private AdviceSetup setup;
+
+    @Param({ "ENABLED", "DISABLED", "METHOD" })
+    private Toggles toggles;
+
+    private AdviceSetup.Instance instance;
+    private GreetingService service;
+
+    private String person = "Daniel";
+    private String phrase = "Hola que tal!";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = setup.create();
+        service = instance.service();
+        AdviceToggles adviceToggles = instance.bean(AdviceToggles.class);
+        switch (toggles) {
+            case DISABLED:
+                adviceToggles.set(null, null, false);
+                break;
+            case METHOD:
+                adviceToggles.set(null, "GreetingServiceImpl.sayHello", false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.close();
+    }
+
+    @Benchmark
+    public String sayHello() {
+        return service.sayHello(person, phrase);
+    }
+}
@@ -0,0 +1,97 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springboot.app.springboot_aop.aop.resilience.CallNotPermittedException;
+import com.springboot.app.springboot_aop.services.GreetingService;
+import com.springboot.app.springboot_aop.services.GreetingServiceException;
+
+/**
+ * Llamadas por segundo a sayHelloThrowAnError a través de los siete advice
+ * (AdviceSetup.FULL) con cada greeting.service.error-mode. FULL es el camino
+ * de error anterior, con una excepción nueva y su stack trace en cada fallo.
+ *
+ * circuitOpen es la misma llamada con ResilienceAspect (AdviceSetup.RESILIENT)
+ * y el circuito ya abierto: se rechaza sin ejecutar el método ni los advice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GreetingErrorPathBenchmark {
+
+    static {
+        System.setProperty("logback.configurationFile", "logback-benchmark.xml");
+    }
+
+    @Param({ "FULL", "STACKLESS", "PREALLOCATED" })
+    private GreetingServiceException.Mode errorMode;
+
+    private AdviceSetup.Instance instance;
+    private GreetingService service;
+
+    private AdviceSetup.Instance resilientInstance;
+    private GreetingService resilientService;
+
+    private String person = "Daniel";
+    private String phrase = "Hola que tal!";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = AdviceSetup.FULL.create(Map.of("greeting.service.error-mode", errorMode.name()));
+        service = instance.service();
+
+        resilientInstance = AdviceSetup.RESILIENT.create(Map.of("greeting.service.error-mode", errorMode.name(),
+                "greeting.aop.resilience.circuit-breaker.open-duration", "1h"));
+        resilientService = resilientInstance.service();
+        /* Fallos suficientes para abrir el circuito */
+        for (int i = 0; i < 100; i++) {
+            try {
+                resilientService.sayHelloThrowAnError(person, phrase);
+            } catch (RuntimeException e) {
+                /* Se espera el fallo */
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.close();
+        resilientInstance.close();
+    }
+
+    @Benchmark
+    public Object sayHelloThrowAnError() {
+        try {
+            return service.sayHelloThrowAnError(person, phrase);
+        } catch (GreetingServiceException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object circuitOpen() {
+        try {
+            return resilientService.sayHelloThrowAnError(person, phrase);
+        } catch (CallNotPermittedException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.app.springboot_aop.controllers.GreetingResponse;
+import com.springboot.app.springboot_aop.controllers.GreetingResponseConverter;
+
+/**
+ * Coste de escribir la respuesta de /greeting en el cuerpo: antes, el Map de
+ * Collections.singletonMap con MappingJackson2HttpMessageConverter; ahora,
+ * GreetingResponse con GreetingResponseConverter. El mensaje de salida se
+ * reutiliza, como el buffer de Tomcat, así que con el profiler gc sólo queda lo
+ * que crea cada conversor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GreetingResponseBenchmark {
+
+    private static final String GREETING = "Hola que tal! Daniel";
+
+    private MappingJackson2HttpMessageConverter jackson;
+    private GreetingResponseConverter direct;
+    private ReusableOutputMessage message;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+        direct = new GreetingResponseConverter(objectMapper);
+        message = new ReusableOutputMessage();
+    }
+
+    @Benchmark
+    public int jacksonMap() throws IOException {
+        Map<String, String> body = Collections.singletonMap("greeting", GREETING);
+        jackson.write(body, MediaType.APPLICATION_JSON, message.reset());
+        return message.body.size();
+    }
+
+    @Benchmark
+    public int jacksonRecord() throws IOException {
+        jackson.write(new GreetingResponse(GREETING), MediaType.APPLICATION_JSON, message.reset());
+        return message.body.size();
+    }
+
+    @Benchmark
+    public int greetingResponseConverter() throws IOException {
+        direct.write(new GreetingResponse(GREETING), MediaType.APPLICATION_JSON, message.reset());
+        return message.body.size();
+    }
+
+    private static final class ReusableOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        ReusableOutputMessage reset() {
+            body.reset();
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+    }
+}
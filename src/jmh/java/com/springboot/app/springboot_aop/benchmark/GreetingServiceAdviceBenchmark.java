@@ -0,0 +1,77 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springboot.app.springboot_aop.services.GreetingService;
+
+/**
+ * Coste por llamada (ns/op) de los advice que interceptan GreetingService en
+ * cada una de las configuraciones de {@link AdviceSetup}. Con el profiler gc
+ * (activo por defecto en el perfil benchmark) se obtiene además
+ * gc.alloc.rate.norm, es decir, los bytes asignados por operación.
+ *
+ * El nivel de log de los aspectos se controla con -Dbench.log.level (OFF por
+ * defecto, se cambia con -Djmh.jvmArgs), también el de GreetingServiceImpl, de
+ * modo que por defecto se mide sólo la interceptación y no el appender. La configuración de logback es
+ * logback-benchmark.xml y no logback-test.xml, para no afectar a los tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GreetingServiceAdviceBenchmark {
+
+    static {
+        System.setProperty("logback.configurationFile", "logback-benchmark.xml");
+    }
+
+    @Param({ "RAW", "POINTCUTS", "GREETING", "FOO", "FULL", "FUSED", "WOVEN" })
+    private AdviceSetup setup;
+
+    private AdviceSetup.Instance instance;
+    private GreetingService service;
+
+    private String person = "Daniel";
+    private String phrase = "Hola que tal!";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = setup.create();
+        service = instance.service();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.close();
+    }
+
+    @Benchmark
+    public String sayHello() {
+        return service.sayHello(person, phrase);
+    }
+
+    @Benchmark
+    public Object sayHelloThrowAnError() {
+        try {
+            return service.sayHelloThrowAnError(person, phrase);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.journal.JournalProperties;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderer;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderingProperties;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+/**
+ * Coste de añadir una llamada a sayHello al diario, tal y como lo hace
+ * GreetingAspect.loggerAround, guardando los argumentos como hash o como texto.
+ * Los segmentos rotan durante la medida (greeting.aop.journal.segment-size de
+ * 16 MB), así que el coste incluye abrir y proyectar los nuevos. Comparar con
+ * la línea escrita por el appender de texto en GreetingServiceAdviceBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvocationJournalBenchmark {
+
+    @Param({ "HASH", "VALUE" })
+    private JournalProperties.ArgumentMode arguments;
+
+    private Path directory;
+    private InvocationJournal journal;
+    private Method sayHello;
+
+    private Object[] args = { "Daniel", "Hola que tal!" };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("journal-benchmark");
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setMaxSegments(2);
+        properties.setArguments(arguments);
+        journal = new InvocationJournal(properties, new ArgumentRenderer(new ArgumentRenderingProperties()));
+        journal.start();
+        sayHello = GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.stop();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(sayHello, args, null, 1_000);
+    }
+
+    /* Varios hilos compitiendo por el lock */
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        append();
+    }
+}
@@ -0,0 +1,59 @@
+package com.springboot.app.springboot_aop.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.springboot.app.springboot_aop.aop.tracing.SpanKind;
+import com.springboot.app.springboot_aop.aop.tracing.SpanRecorder;
+import com.springboot.app.springboot_aop.aop.tracing.TracingProperties;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+/**
+ * Coste de registrar los spans de una llamada a sayHello tal y como los abre
+ * GreetingAspect.loggerAround: el del advice y, dentro, el de proceed(). Con el
+ * profiler gc se comprueba que no se crea ningún objeto por span.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SpanRecorderBenchmark {
+
+    private SpanRecorder recorder;
+    private Method sayHello;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        recorder = new SpanRecorder(new TracingProperties());
+        sayHello = GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class);
+    }
+
+    @Benchmark
+    public void adviceAndBody() {
+        int advice = recorder.open(SpanKind.ADVICE, sayHello);
+        int body = recorder.open(SpanKind.BODY, sayHello);
+        recorder.close(body, false);
+        recorder.close(advice, false);
+    }
+
+    /* Varios hilos compartiendo los contadores y el buffer */
+    @Benchmark
+    @Threads(4)
+    public void adviceAndBodyContended() {
+        adviceAndBody();
+    }
+}
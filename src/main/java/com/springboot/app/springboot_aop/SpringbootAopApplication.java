@@ -2,7 +2,10 @@ package com.springboot.app.springboot_aop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * La anotación @EnableAspectJAutoProxy se utiliza en aplicaciones Spring para
@@ -27,13 +30,24 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
  * aplicación. Sin embargo, si necesitas configuraciones específicas para AOP
  * (como el uso de proxies CGLIB en lugar de proxies JDK), podrías
  * agregar @EnableAspectJAutoProxy con los parámetros necesarios.
+ * 
+ * Aquí va en una configuración anidada que respeta spring.aop.auto, igual que
+ * la de Spring Boot: con --spring.aop.auto=false la aplicación arranca sin
+ * proxies, que es la referencia de GreetingLoadTests.
  */
-@EnableAspectJAutoProxy
 @SpringBootApplication
+/* Reflexión que usan los aspectos en la imagen nativa (perfil Maven native) */
+@ImportRuntimeHints(SpringbootAopRuntimeHints.class)
 public class SpringbootAopApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(SpringbootAopApplication.class, args);
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@EnableAspectJAutoProxy
+	@ConditionalOnProperty(prefix = "spring.aop", name = "auto", havingValue = "true", matchIfMissing = true)
+	static class AspectJAutoProxyConfiguration {
+	}
+
 }
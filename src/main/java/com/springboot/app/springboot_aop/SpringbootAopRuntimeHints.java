@@ -0,0 +1,44 @@
+package com.springboot.app.springboot_aop;
+
+import java.util.List;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.springboot.app.springboot_aop.aop.cache.Memoized;
+import com.springboot.app.springboot_aop.aop.coalesce.SingleFlight;
+import com.springboot.app.springboot_aop.aop.logging.Redacted;
+import com.springboot.app.springboot_aop.aop.resilience.Bulkhead;
+import com.springboot.app.springboot_aop.aop.resilience.CircuitBreaker;
+import com.springboot.app.springboot_aop.services.GreetingService;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+import com.springboot.app.springboot_aop.services.ReactiveGreetingService;
+import com.springboot.app.springboot_aop.services.ReactiveGreetingServiceImpl;
+
+/**
+ * Lo que la imagen nativa necesita y Spring AOT no deduce de las definiciones
+ * de beans: los aspectos leen por reflexión el Method de cada punto de unión
+ * (MethodSignature.getMethod()) y sus anotaciones y las de sus parámetros
+ * (@Memoized, @SingleFlight, @Bulkhead, @CircuitBreaker, @Redacted). Los
+ * proxies CGLIB de los servicios y los advisors ya los genera el procesado AOT.
+ */
+class SpringbootAopRuntimeHints implements RuntimeHintsRegistrar {
+
+    /* Clases cuyos métodos interceptan los aspectos */
+    static final List<Class<?>> ADVISED = List.of(GreetingService.class, GreetingServiceImpl.class,
+            ReactiveGreetingService.class, ReactiveGreetingServiceImpl.class);
+
+    static final List<Class<?>> ANNOTATIONS = List.of(Memoized.class, SingleFlight.class, Bulkhead.class,
+            CircuitBreaker.class, Redacted.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ADVISED.forEach(type -> hints.reflection().registerType(type, MemberCategory.INTROSPECT_PUBLIC_METHODS,
+                MemberCategory.INTROSPECT_DECLARED_METHODS));
+        ANNOTATIONS.forEach(annotation -> {
+            hints.reflection().registerType(annotation, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(annotation);
+        });
+    }
+}
@@ -1,6 +1,6 @@
 package com.springboot.app.springboot_aop.aop;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -10,11 +10,24 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.logging.InvocationPhase;
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceId;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.aop.tracing.SpanKind;
+import com.springboot.app.springboot_aop.aop.tracing.SpanRecorder;
+
 /**
  * La anotación @Order en Spring se utiliza para definir el orden de ejecución
  * de los aspectos (advice) o de los componentes (beans). Cuando se tienen
@@ -74,10 +87,46 @@ import org.springframework.stereotype.Component;
  * los métodos, la clase se tiene que anotar con @Component
  */
 @Component
+/* Desactivado en el modo fusionado (GreetingFusedAspect) */
+@ConditionalOnProperty(name = "greeting.aop.mode", havingValue = "classic", matchIfMissing = true)
 public class GreetingAspect {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /*
+     * Las líneas de log se publican como eventos: sólo se construyen si el nivel
+     * está activo, y por defecto las escribe un hilo aparte y no el de la petición
+     */
+    @Autowired
+    private InvocationEventPipeline invocationEvents;
+
+    /* Histogramas de latencia por método (éxito y fallo) que alimenta loggerAround */
+    @Autowired
+    private MethodLatencyRecorder latencyRecorder;
+
+    /* Fallos por método y tipo de excepción, sin leer el stack trace */
+    @Autowired
+    private MethodErrorCounter errorCounter;
+
+    /*
+     * Cada advice empieza comprobando si está activado (/actuator/greetingadvice);
+     * con todo activado es una lectura de un volátil y una comparación con cero
+     */
+    @Autowired
+    private AdviceToggles adviceToggles;
+
+    /* loggerAround abre un span para el advice y otro para proceed() (/actuator/greetingspans) */
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    /* loggerAround añade cada llamada al diario binario si está activado (greeting.aop.journal.enabled) */
+    @Autowired
+    private InvocationJournal journal;
+
+    /* Las líneas de los métodos que devuelven Mono o Flux, escritas con las señales del publisher */
+    @Autowired
+    private ReactiveInvocationObserver reactiveObserver;
+
     /*
      * En la programación orientada a aspectos (AOP) con Spring, la interfaz
      * JoinPoint de org.aspectj.lang.JoinPoint proporciona una representación del
@@ -104,56 +153,69 @@ public class GreetingAspect {
      */
 
     /*
-     * La anotación @Before en Spring AOP se utiliza para definir un "advice" que
-     * debe ejecutarse antes de la ejecución de un método coincidente. El advice es
-     * un fragmento de código que se ejecuta en un punto específico de la ejecución
-     * del programa, y se define junto con una expresión "pointcut" que especifica
-     * los métodos a los que se aplica.
-     * 
-     * Propósito de @Before
-     * Ejecutar código antes de un método específico: Permite ejecutar código antes
-     * de la ejecución del método que coincide con la expresión del pointcut.
-     * Realizar tareas previas: Puede ser utilizado para diversas tareas como
-     * registro (logging), validación de parámetros, verificación de seguridad,
-     * etc., antes de que el método principal sea ejecutado.
-     * Explicación de la expresión
-     * La expresión @Before("execution(String GreetingService.sayHello(..))") se
-     * desglosa de la siguiente manera:
+     * Los advice están declarados en orden inverso al que Spring los aplica. Con
+     * el tejido en compilación (perfil ajc) AspectJ ignora @Order y ordena los
+     * advice de un mismo aspecto por su posición en la clase; en este orden ambos
+     * modos producen la misma secuencia: Around, Before, After, AfterReturning y
+     * AfterThrowing, de fuera hacia dentro.
+     */
+
+    /*
+     * Ejecución
      * 
-     * execution(...): Es una sintaxis de AspectJ utilizada para definir un pointcut
-     * basado en la ejecución de métodos.
-     * String: Especifica el tipo de retorno del método. En este caso, el método
-     * debe retornar un String.
-     * GreetingService: Especifica la clase que contiene el método.
-     * sayHello: Especifica el nombre del método que queremos interceptar.
-     * (..): Indica que el método puede tener cualquier número y tipo de argumentos.
+     * @AfterReturning: Cuando un método de GreetingService que retorna un String se
+     * ejecuta con éxito, el advice definido por @AfterReturning se ejecutará,
+     * imprimiendo el valor retornado.
      * 
-     * Explicación del ejemplo
-     * GreetingService: Es un simple servicio que tiene un método sayHello que toma
-     * un String como parámetro y devuelve un saludo.
-     * LoggingAspect: Define un aspecto con un advice que se ejecuta antes del
-     * método sayHello en GreetingService. El advice utiliza @Before con la
-     * expresión execution(String GreetingService.sayHello(..)) para interceptar
-     * todas las llamadas a este método. En el método logBeforeMethodExecution, se
-     * registra el nombre del método y sus argumentos antes de su ejecución.
-     * Configuración principal de Spring Boot: Se configura una aplicación Spring
-     * Boot que registra GreetingService como un bean para que pueda ser inyectado y
-     * utilizado en la aplicación.
-     * Ejecución
-     * Cuando el método sayHello de GreetingService es llamado, el advice en
-     * LoggingAspect se ejecuta primero, imprimiendo el nombre del método y sus
-     * argumentos antes de que sayHello ejecute su lógica.
+     * @AfterThrowing: Cuando un método de GreetingService lanza una excepción, el
+     * advice definido por @AfterThrowing se ejecutará, imprimiendo la excepción
+     * lanzada.
+     * Conclusión
+     * Las anotaciones @AfterReturning y @AfterThrowing en Spring AOP proporcionan
+     * mecanismos específicos para ejecutar lógica adicional después de la ejecución
+     * de métodos coincidentes, dependiendo de si el método retorna con éxito o
+     * lanza una excepción. Estas capacidades permiten un manejo detallado y
+     * específico de las ejecuciones de métodos, mejorando la capacidad de gestionar
+     * y registrar el comportamiento de las aplicaciones.
+     */
+
+    /*
+     * @AfterThrowing
+     * La anotación @AfterThrowing se utiliza para definir un advice que se ejecuta
+     * después de que un método coincidente lanza una excepción.
      * 
-     * Este patrón es útil para separar preocupaciones transversales como el
-     * registro (logging) del código de negocio principal, mejorando así la
-     * mantenibilidad y la claridad del código.
+     * Propósito de @AfterThrowing
+     * Ejecutar código después de una excepción: Permite ejecutar lógica adicional
+     * después de que el método ha lanzado una excepción.
+     * Acceso a la excepción lanzada: Puede capturar y trabajar con la excepción
+     * lanzada por el método.
      */
+    @AfterThrowing("GreetingServicePointcuts.greetingLoggerPointCut()")
+    public void loggerAfterThrowing(JoinPoint joinPoint) {
+        if (!adviceToggles.isEnabled(AdviceId.AFTER_THROWING, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.AFTER_THROWING, joinPoint);
+    }
 
-    @Before("GreetingServicePointcuts.greetingLoggerPointCut()")
-    public void loggerBefore(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Antes: " + method + " con los argumentos " + args);
+    /*
+     * @AfterReturning
+     * La anotación @AfterReturning se utiliza para definir un advice que se ejecuta
+     * después de que un método coincidente retorna con éxito, es decir, sin lanzar
+     * una excepción.
+     * 
+     * Propósito de @AfterReturning
+     * Ejecutar código después de una ejecución exitosa: Permite ejecutar lógica
+     * adicional después de que el método ha completado con éxito.
+     * Acceso al valor retornado: Puede capturar y trabajar con el valor retornado
+     * por el método.
+     */
+    @AfterReturning("GreetingServicePointcuts.greetingLoggerPointCut()")
+    public void loggerAfterReturning(JoinPoint joinPoint) {
+        if (!adviceToggles.isEnabled(AdviceId.AFTER_RETURNING, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.AFTER_RETURNING, joinPoint);
     }
 
     /*
@@ -201,65 +263,10 @@ public class GreetingAspect {
      */
     @After("GreetingServicePointcuts.greetingLoggerPointCut()")
     public void loggerAfter(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Despues: " + method + " con los argumentos " + args);
-    }
-
-    /*
-     * Ejecución
-     * 
-     * @AfterReturning: Cuando un método de GreetingService que retorna un String se
-     * ejecuta con éxito, el advice definido por @AfterReturning se ejecutará,
-     * imprimiendo el valor retornado.
-     * 
-     * @AfterThrowing: Cuando un método de GreetingService lanza una excepción, el
-     * advice definido por @AfterThrowing se ejecutará, imprimiendo la excepción
-     * lanzada.
-     * Conclusión
-     * Las anotaciones @AfterReturning y @AfterThrowing en Spring AOP proporcionan
-     * mecanismos específicos para ejecutar lógica adicional después de la ejecución
-     * de métodos coincidentes, dependiendo de si el método retorna con éxito o
-     * lanza una excepción. Estas capacidades permiten un manejo detallado y
-     * específico de las ejecuciones de métodos, mejorando la capacidad de gestionar
-     * y registrar el comportamiento de las aplicaciones.
-     */
-
-    /*
-     * @AfterReturning
-     * La anotación @AfterReturning se utiliza para definir un advice que se ejecuta
-     * después de que un método coincidente retorna con éxito, es decir, sin lanzar
-     * una excepción.
-     * 
-     * Propósito de @AfterReturning
-     * Ejecutar código después de una ejecución exitosa: Permite ejecutar lógica
-     * adicional después de que el método ha completado con éxito.
-     * Acceso al valor retornado: Puede capturar y trabajar con el valor retornado
-     * por el método.
-     */
-    @AfterReturning("GreetingServicePointcuts.greetingLoggerPointCut()")
-    public void loggerAfterReturning(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Despues de retornar: " + method + " con los argumentos " + args);
-    }
-
-    /*
-     * @AfterThrowing
-     * La anotación @AfterThrowing se utiliza para definir un advice que se ejecuta
-     * después de que un método coincidente lanza una excepción.
-     * 
-     * Propósito de @AfterThrowing
-     * Ejecutar código después de una excepción: Permite ejecutar lógica adicional
-     * después de que el método ha lanzado una excepción.
-     * Acceso a la excepción lanzada: Puede capturar y trabajar con la excepción
-     * lanzada por el método.
-     */
-    @AfterThrowing("GreetingServicePointcuts.greetingLoggerPointCut()")
-    public void loggerAfterThrowing(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Despues de lanzar la excepcion: " + method + " con los argumentos " + args);
+        if (!adviceToggles.isEnabled(AdviceId.AFTER, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.AFTER, joinPoint);
     }
 
     /*
@@ -326,19 +333,145 @@ public class GreetingAspect {
      */
     @Around("GreetingServicePointcuts.greetingLoggerPointCut()")
     public Object loggerAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
+        if (!adviceToggles.isEnabled(AdviceId.AROUND, joinPoint)) {
+            return joinPoint.proceed();
+        }
+        Method target = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        int span = spanRecorder.open(SpanKind.ADVICE, target);
+        boolean failed = true;
+        long start = System.nanoTime();
 
         Object result = null;
         try {
-            logger.info("El metodo: " + method + "() con los argumentos " + args);
-            result = joinPoint.proceed();
-            logger.info("El metodo: " + method + "() retorna el resultado: " + result);
+            invocationEvents.publish(logger, InvocationPhase.AROUND_ENTER, joinPoint);
+            result = proceed(joinPoint, target);
+            long elapsed = System.nanoTime() - start;
+            latencyRecorder.recordSuccess(joinPoint, elapsed);
+            journal.append(target, joinPoint, null, elapsed);
+            invocationEvents.publish(logger, InvocationPhase.AROUND_RETURN, joinPoint, result, elapsed);
+            failed = false;
             return result;
         } catch (Throwable e) {
-            logger.error("Error en la llamada del metodo " + method + "()");
+            long elapsed = System.nanoTime() - start;
+            latencyRecorder.recordFailure(joinPoint, elapsed);
+            errorCounter.record(joinPoint, e);
+            journal.append(target, joinPoint, e, elapsed);
+            invocationEvents.publish(logger, InvocationPhase.AROUND_ERROR, joinPoint, e, elapsed);
             /* Se relanza la excepción para manejarla después, se agrega throws Throwable */
             throw e;
+        } finally {
+            spanRecorder.close(span, failed);
         }
     }
+
+    /* proceed() dentro de su propio span (BODY), hijo del span del advice */
+    private Object proceed(ProceedingJoinPoint joinPoint, Method target) throws Throwable {
+        int span = spanRecorder.open(SpanKind.BODY, target);
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            spanRecorder.close(span, failed);
+        }
+    }
+
+    /*
+     * La anotación @Before en Spring AOP se utiliza para definir un "advice" que
+     * debe ejecutarse antes de la ejecución de un método coincidente. El advice es
+     * un fragmento de código que se ejecuta en un punto específico de la ejecución
+     * del programa, y se define junto con una expresión "pointcut" que especifica
+     * los métodos a los que se aplica.
+     * 
+     * Propósito de @Before
+     * Ejecutar código antes de un método específico: Permite ejecutar código antes
+     * de la ejecución del método que coincide con la expresión del pointcut.
+     * Realizar tareas previas: Puede ser utilizado para diversas tareas como
+     * registro (logging), validación de parámetros, verificación de seguridad,
+     * etc., antes de que el método principal sea ejecutado.
+     * Explicación de la expresión
+     * La expresión @Before("execution(String GreetingService.sayHello(..))") se
+     * desglosa de la siguiente manera:
+     * 
+     * execution(...): Es una sintaxis de AspectJ utilizada para definir un pointcut
+     * basado en la ejecución de métodos.
+     * String: Especifica el tipo de retorno del método. En este caso, el método
+     * debe retornar un String.
+     * GreetingService: Especifica la clase que contiene el método.
+     * sayHello: Especifica el nombre del método que queremos interceptar.
+     * (..): Indica que el método puede tener cualquier número y tipo de argumentos.
+     * 
+     * Explicación del ejemplo
+     * GreetingService: Es un simple servicio que tiene un método sayHello que toma
+     * un String como parámetro y devuelve un saludo.
+     * LoggingAspect: Define un aspecto con un advice que se ejecuta antes del
+     * método sayHello en GreetingService. El advice utiliza @Before con la
+     * expresión execution(String GreetingService.sayHello(..)) para interceptar
+     * todas las llamadas a este método. En el método logBeforeMethodExecution, se
+     * registra el nombre del método y sus argumentos antes de su ejecución.
+     * Configuración principal de Spring Boot: Se configura una aplicación Spring
+     * Boot que registra GreetingService como un bean para que pueda ser inyectado y
+     * utilizado en la aplicación.
+     * Ejecución
+     * Cuando el método sayHello de GreetingService es llamado, el advice en
+     * LoggingAspect se ejecuta primero, imprimiendo el nombre del método y sus
+     * argumentos antes de que sayHello ejecute su lógica.
+     * 
+     * Este patrón es útil para separar preocupaciones transversales como el
+     * registro (logging) del código de negocio principal, mejorando así la
+     * mantenibilidad y la claridad del código.
+     */
+
+    @Before("GreetingServicePointcuts.greetingLoggerPointCut()")
+    public void loggerBefore(JoinPoint joinPoint) {
+        if (!adviceToggles.isEnabled(AdviceId.BEFORE, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.BEFORE, joinPoint);
+    }
+
+    /*
+     * Lotes (sayHelloBatch): una única línea con los totales y una latencia por
+     * lote, en lugar de los cinco advice por cada elemento
+     */
+    @Around("GreetingServicePointcuts.greetingBatchPointCut()")
+    public Object loggerBatchAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!adviceToggles.isEnabled(AdviceId.BATCH_AROUND, joinPoint)) {
+            return joinPoint.proceed();
+        }
+        Method target = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        int span = spanRecorder.open(SpanKind.ADVICE, target);
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            Object summary = proceed(joinPoint, target);
+            long elapsed = System.nanoTime() - start;
+            latencyRecorder.recordSuccess(joinPoint, elapsed);
+            /* Un registro por lote, sin los elementos */
+            journal.append(target, (Object[]) null, null, elapsed);
+            invocationEvents.publish(logger, InvocationPhase.BATCH_RETURN, joinPoint, summary, elapsed);
+            failed = false;
+            return summary;
+        } catch (Throwable e) {
+            long elapsed = System.nanoTime() - start;
+            latencyRecorder.recordFailure(joinPoint, elapsed);
+            errorCounter.record(joinPoint, e);
+            journal.append(target, (Object[]) null, e, elapsed);
+            invocationEvents.publish(logger, InvocationPhase.BATCH_ERROR, joinPoint, e, elapsed);
+            throw e;
+        } finally {
+            spanRecorder.close(span, failed);
+        }
+    }
+
+    /*
+     * Métodos reactivos (ReactiveGreetingService): el método sólo monta el Mono o
+     * el Flux, así que las líneas de los cinco advice se escriben al suscribirse y
+     * con la señal final del publisher (ReactiveInvocationObserver)
+     */
+    @Around("GreetingServicePointcuts.greetingReactivePointCut()")
+    public Object loggerReactiveAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        return reactiveObserver.observe(joinPoint, logger);
+    }
 }
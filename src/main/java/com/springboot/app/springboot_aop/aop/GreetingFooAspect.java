@@ -1,16 +1,23 @@
 package com.springboot.app.springboot_aop.aop;
 
-import java.util.Arrays;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.logging.InvocationPhase;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceId;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.services.GreetingBatchSummary;
+
 /**
  * La prioridad del Order (1) envuelve los demás Order, como es el primero que
  * se ejecuta o el primer en interceptar, anida, envuelve al resto de los
@@ -19,21 +26,49 @@ import org.springframework.stereotype.Component;
 @Order(1)
 @Component
 @Aspect
+/* Desactivado en el modo fusionado (GreetingFusedAspect) */
+@ConditionalOnProperty(name = "greeting.aop.mode", havingValue = "classic", matchIfMissing = true)
 public class GreetingFooAspect {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    @Autowired
+    private InvocationEventPipeline invocationEvents;
+
+    /* Advice activados y desactivados en ejecución (/actuator/greetingadvice) */
+    @Autowired
+    private AdviceToggles adviceToggles;
+
     @Before("GreetingServicePointcuts.greetingFooLoggerPointCut()")
     public void loggerBefore(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Antes (Foo): " + method + " invocado con los parametros " + args);
+        if (!adviceToggles.isEnabled(AdviceId.FOO_BEFORE, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.FOO_BEFORE, joinPoint);
     }
 
     @After("GreetingServicePointcuts.greetingFooLoggerPointCut()")
     public void loggerAfter(JoinPoint joinPoint) {
-        String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
-        logger.info("Despues (Foo): " + method + " invocado con los parametros " + args);
+        if (!adviceToggles.isEnabled(AdviceId.FOO_AFTER, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.FOO_AFTER, joinPoint);
+    }
+
+    /* Lotes: una línea al empezar y otra con los totales, no una por elemento */
+    @Before("GreetingServicePointcuts.greetingBatchPointCut()")
+    public void loggerBatchBefore(JoinPoint joinPoint) {
+        if (!adviceToggles.isEnabled(AdviceId.FOO_BATCH_BEFORE, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.FOO_BATCH_BEFORE, joinPoint);
+    }
+
+    @AfterReturning(pointcut = "GreetingServicePointcuts.greetingBatchPointCut()", returning = "summary")
+    public void loggerBatchAfter(JoinPoint joinPoint, GreetingBatchSummary summary) {
+        if (!adviceToggles.isEnabled(AdviceId.FOO_BATCH_AFTER, joinPoint)) {
+            return;
+        }
+        invocationEvents.publish(logger, InvocationPhase.FOO_BATCH_AFTER, joinPoint, summary, 0L);
     }
 }
@@ -0,0 +1,208 @@
+package com.springboot.app.springboot_aop.aop;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.logging.InvocationPhase;
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceId;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.aop.tracing.SpanKind;
+import com.springboot.app.springboot_aop.aop.tracing.SpanRecorder;
+
+/**
+ * Modo fusionado (greeting.aop.mode=fused): sustituye los siete advice de
+ * GreetingFooAspect y GreetingAspect por un único interceptor @Around por punto
+ * de unión.
+ *
+ * Reproduce el mismo anidamiento que @Order(1)/@Order(2) y el mismo orden que
+ * Spring aplica dentro de un aspecto (Around, Before, After, AfterReturning,
+ * AfterThrowing), escribiendo exactamente las mismas líneas de log con los
+ * loggers de los aspectos originales. La diferencia es que la firma y los
+ * argumentos se leen una sola vez por llamada, y la cadena de interceptores del
+ * proxy pasa de siete elementos a uno.
+ */
+@Order(1)
+@Component
+@Aspect
+@ConditionalOnProperty(name = "greeting.aop.mode", havingValue = "fused")
+public class GreetingFusedAspect {
+
+    /* Los advice que sustituye cada interceptor */
+    private static final long FUSED = AdviceId.FOO_BEFORE.mask() | AdviceId.FOO_AFTER.mask()
+            | AdviceId.AROUND.mask() | AdviceId.BEFORE.mask() | AdviceId.AFTER.mask()
+            | AdviceId.AFTER_RETURNING.mask() | AdviceId.AFTER_THROWING.mask();
+    private static final long FUSED_BATCH = AdviceId.FOO_BATCH_BEFORE.mask() | AdviceId.BATCH_AROUND.mask()
+            | AdviceId.FOO_BATCH_AFTER.mask();
+
+    private Logger fooLogger = LoggerFactory.getLogger(GreetingFooAspect.class);
+
+    private Logger logger = LoggerFactory.getLogger(GreetingAspect.class);
+
+    @Autowired
+    private InvocationEventPipeline invocationEvents;
+
+    @Autowired
+    private MethodLatencyRecorder latencyRecorder;
+
+    @Autowired
+    private MethodErrorCounter errorCounter;
+
+    @Autowired
+    private AdviceToggles adviceToggles;
+
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    @Autowired
+    private InvocationJournal journal;
+
+    @Autowired
+    private ReactiveInvocationObserver reactiveObserver;
+
+    @Around("GreetingServicePointcuts.greetingFooLoggerPointCut()")
+    public Object loggerFused(ProceedingJoinPoint joinPoint) throws Throwable {
+        /* La firma y los argumentos se leen una única vez para las siete líneas */
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String method = signature.getName();
+        Method target = signature.getMethod();
+        /* Advice desactivados en ejecución: cada línea respeta el estado del advice que sustituye */
+        long off = adviceToggles.disabled(target);
+        if ((off & FUSED) == FUSED) {
+            return joinPoint.proceed();
+        }
+        Object[] args = joinPoint.getArgs();
+        /* Los spans de GreetingAspect.loggerAround: el del advice y el de proceed() */
+        boolean around = !AdviceId.AROUND.in(off);
+        int span = around ? spanRecorder.open(SpanKind.ADVICE, target) : SpanRecorder.NO_SPAN;
+        boolean failed = true;
+        long start = System.nanoTime();
+
+        /* GreetingFooAspect.loggerBefore */
+        if (!AdviceId.FOO_BEFORE.in(off)) {
+            invocationEvents.publish(fooLogger, InvocationPhase.FOO_BEFORE, method, target, args, null, 0L);
+        }
+        try {
+            /* GreetingAspect.loggerAround (antes de proceed) y GreetingAspect.loggerBefore */
+            if (!AdviceId.AROUND.in(off)) {
+                invocationEvents.publish(logger, InvocationPhase.AROUND_ENTER, method, target, args, null, 0L);
+            }
+            if (!AdviceId.BEFORE.in(off)) {
+                invocationEvents.publish(logger, InvocationPhase.BEFORE, method, target, args, null, 0L);
+            }
+
+            Object result;
+            int body = around ? spanRecorder.open(SpanKind.BODY, target) : SpanRecorder.NO_SPAN;
+            try {
+                result = joinPoint.proceed();
+            } catch (Throwable e) {
+                spanRecorder.close(body, true);
+                /* loggerAfterThrowing, loggerAfter y el catch de loggerAround */
+                long elapsed = System.nanoTime() - start;
+                if (!AdviceId.AFTER_THROWING.in(off)) {
+                    invocationEvents.publish(logger, InvocationPhase.AFTER_THROWING, method, target, args, e, elapsed);
+                }
+                if (!AdviceId.AFTER.in(off)) {
+                    invocationEvents.publish(logger, InvocationPhase.AFTER, method, target, args, null, elapsed);
+                }
+                if (!AdviceId.AROUND.in(off)) {
+                    latencyRecorder.record(target, elapsed, false);
+                    errorCounter.record(target, e);
+                    journal.append(target, args, e, elapsed);
+                    invocationEvents.publish(logger, InvocationPhase.AROUND_ERROR, method, target, args, e, elapsed);
+                }
+                throw e;
+            }
+            spanRecorder.close(body, false);
+
+            /* loggerAfterReturning, loggerAfter y loggerAround (después de proceed) */
+            long elapsed = System.nanoTime() - start;
+            if (!AdviceId.AFTER_RETURNING.in(off)) {
+                invocationEvents.publish(logger, InvocationPhase.AFTER_RETURNING, method, target, args, result,
+                        elapsed);
+            }
+            if (!AdviceId.AFTER.in(off)) {
+                invocationEvents.publish(logger, InvocationPhase.AFTER, method, target, args, null, elapsed);
+            }
+            if (!AdviceId.AROUND.in(off)) {
+                latencyRecorder.record(target, elapsed, true);
+                journal.append(target, args, null, elapsed);
+                invocationEvents.publish(logger, InvocationPhase.AROUND_RETURN, method, target, args, result, elapsed);
+            }
+            failed = false;
+            return result;
+        } finally {
+            spanRecorder.close(span, failed);
+            /* GreetingFooAspect.loggerAfter */
+            if (!AdviceId.FOO_AFTER.in(off)) {
+                invocationEvents.publish(fooLogger, InvocationPhase.FOO_AFTER, method, target, args, null, 0L);
+            }
+        }
+    }
+
+    /* GreetingFooAspect.loggerBatchBefore, GreetingAspect.loggerBatchAround y GreetingFooAspect.loggerBatchAfter */
+    @Around("GreetingServicePointcuts.greetingBatchPointCut()")
+    public Object loggerBatchFused(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String method = signature.getName();
+        Method target = signature.getMethod();
+        long off = adviceToggles.disabled(target);
+        if ((off & FUSED_BATCH) == FUSED_BATCH) {
+            return joinPoint.proceed();
+        }
+        boolean around = !AdviceId.BATCH_AROUND.in(off);
+        int span = around ? spanRecorder.open(SpanKind.ADVICE, target) : SpanRecorder.NO_SPAN;
+        long start = System.nanoTime();
+
+        if (!AdviceId.FOO_BATCH_BEFORE.in(off)) {
+            invocationEvents.publish(fooLogger, InvocationPhase.FOO_BATCH_BEFORE, method, target, null, null, 0L);
+        }
+        Object summary;
+        int body = around ? spanRecorder.open(SpanKind.BODY, target) : SpanRecorder.NO_SPAN;
+        try {
+            summary = joinPoint.proceed();
+        } catch (Throwable e) {
+            spanRecorder.close(body, true);
+            spanRecorder.close(span, true);
+            if (around) {
+                long elapsed = System.nanoTime() - start;
+                latencyRecorder.record(target, elapsed, false);
+                errorCounter.record(target, e);
+                journal.append(target, (Object[]) null, e, elapsed);
+                invocationEvents.publish(logger, InvocationPhase.BATCH_ERROR, method, target, null, e, elapsed);
+            }
+            throw e;
+        }
+        spanRecorder.close(body, false);
+        if (around) {
+            long elapsed = System.nanoTime() - start;
+            latencyRecorder.record(target, elapsed, true);
+            journal.append(target, (Object[]) null, null, elapsed);
+            invocationEvents.publish(logger, InvocationPhase.BATCH_RETURN, method, target, null, summary, elapsed);
+        }
+        spanRecorder.close(span, false);
+        if (!AdviceId.FOO_BATCH_AFTER.in(off)) {
+            invocationEvents.publish(fooLogger, InvocationPhase.FOO_BATCH_AFTER, method, target, null, summary, 0L);
+        }
+        return summary;
+    }
+
+    /* GreetingAspect.loggerReactiveAround: ya es un único interceptor, con las mismas líneas */
+    @Around("GreetingServicePointcuts.greetingReactivePointCut()")
+    public Object loggerReactiveFused(ProceedingJoinPoint joinPoint) throws Throwable {
+        return reactiveObserver.observe(joinPoint, logger);
+    }
+}
@@ -1,18 +1,30 @@
 package com.springboot.app.springboot_aop.aop;
 
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
 import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.stereotype.Component;
 
 @Aspect
+@DeclarePrecedence("GreetingFooAspect, GreetingAspect")
 @Component
 public class GreetingServicePointcuts {
 
-    @Pointcut("execution(String com.springboot.app.springboot_aop.services.*.*(..))")
+    @Pointcut("execution(public String com.springboot.app.springboot_aop.services.GreetingService+.*(..))")
     protected void greetingLoggerPointCut() {
     }
 
-    @Pointcut("execution(String com.springboot.app.springboot_aop.services.*.*(..))")
+    @Pointcut("execution(public String com.springboot.app.springboot_aop.services.GreetingService+.*(..))")
     protected void greetingFooLoggerPointCut() {
     }
+
+    /* Métodos de lote: sus advice se ejecutan una vez por lote y no por elemento */
+    @Pointcut("execution(public com.springboot.app.springboot_aop.services.GreetingBatchSummary com.springboot.app.springboot_aop.services.GreetingService+.*(..))")
+    protected void greetingBatchPointCut() {
+    }
+
+    /* Métodos reactivos (Mono, Flux): sus advice siguen las señales del publisher y no la llamada */
+    @Pointcut("execution(public org.reactivestreams.Publisher+ com.springboot.app.springboot_aop.services.ReactiveGreetingService+.*(..))")
+    protected void greetingReactivePointCut() {
+    }
 }
@@ -0,0 +1,181 @@
+package com.springboot.app.springboot_aop.aop;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.logging.InvocationPhase;
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceId;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Los advice de GreetingAspect para métodos que devuelven Mono o Flux
+ * (GreetingServicePointcuts.greetingReactivePointCut). El método sólo monta el
+ * publisher; el trabajo empieza al suscribirse y termina con su señal final,
+ * así que @AfterReturning o el tiempo de @Around medido alrededor de proceed()
+ * llegarían antes de que hubiera resultado.
+ *
+ * Aquí las mismas líneas se escriben con las señales del publisher: al
+ * suscribirse (loggerAround y loggerBefore), y al completar o fallar
+ * (loggerAfterReturning o loggerAfterThrowing, loggerAfter y el final de
+ * loggerAround, con la latencia desde la suscripción). Un Flux devuelve como
+ * resultado el número de elementos emitidos. Cada suscripción es una llamada.
+ *
+ * Todo se ejecuta en el hilo que emite la señal, sin bloquearlo: los eventos de
+ * log van al buffer de InvocationEventPipeline con tryPublish(), que con el
+ * buffer lleno los descarta en lugar de esperar aunque la política sea block;
+ * el registro del diario lo escribe su propio hilo (appendLater()) y el resto
+ * son contadores. Sólo con greeting.aop.events.async=false, o con el buffer
+ * parado, el log se escribe en el hilo de la señal. Los spans de SpanRecorder no
+ * se abren porque su pila es por hilo y un publisher puede terminar en otro.
+ *
+ * Lo usan GreetingAspect.loggerReactiveAround y el modo fusionado; cada línea
+ * respeta el estado de su advice en AdviceToggles, como en GreetingFusedAspect.
+ */
+@Component
+public class ReactiveInvocationObserver {
+
+    private final InvocationEventPipeline invocationEvents;
+    private final MethodLatencyRecorder latencyRecorder;
+    private final MethodErrorCounter errorCounter;
+    private final AdviceToggles adviceToggles;
+    private final InvocationJournal journal;
+
+    public ReactiveInvocationObserver(InvocationEventPipeline invocationEvents, MethodLatencyRecorder latencyRecorder,
+            MethodErrorCounter errorCounter, AdviceToggles adviceToggles, InvocationJournal journal) {
+        this.invocationEvents = invocationEvents;
+        this.latencyRecorder = latencyRecorder;
+        this.errorCounter = errorCounter;
+        this.adviceToggles = adviceToggles;
+        this.journal = journal;
+    }
+
+    /* Ejecuta el método y devuelve su publisher con los eventos enganchados a sus señales */
+    public Object observe(ProceedingJoinPoint joinPoint, Logger logger) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method target = signature.getMethod();
+        long off = adviceToggles.disabled(target);
+        if (AdviceId.REACTIVE_AROUND.in(off)) {
+            return joinPoint.proceed();
+        }
+        Call call = new Call(logger, signature.getName(), target, joinPoint.getArgs(), off);
+
+        Object publisher;
+        try {
+            publisher = joinPoint.proceed();
+        } catch (Throwable e) {
+            /* Falló al montar el publisher: se registra como una llamada que falla en el acto */
+            call.fail(e, call.subscribe());
+            throw e;
+        }
+        if (publisher instanceof Mono<?> mono) {
+            return observe(mono, call);
+        }
+        if (publisher instanceof Flux<?> flux) {
+            return observe(flux, call);
+        }
+        return publisher;
+    }
+
+    private static <T> Mono<T> observe(Mono<T> mono, Call call) {
+        return Mono.defer(() -> {
+            long start = call.subscribe();
+            return mono.doOnSuccess(value -> call.complete(value, start))
+                    .doOnError(e -> call.fail(e, start))
+                    .doOnCancel(() -> call.cancel(start));
+        });
+    }
+
+    private static <T> Flux<T> observe(Flux<T> flux, Call call) {
+        return Flux.defer(() -> {
+            long start = call.subscribe();
+            /* Las señales de una suscripción nunca son simultáneas */
+            long[] elements = new long[1];
+            return flux.doOnNext(element -> elements[0]++)
+                    .doOnComplete(() -> call.complete(elements[0], start))
+                    .doOnError(e -> call.fail(e, start))
+                    .doOnCancel(() -> call.cancel(start));
+        });
+    }
+
+    /* Una llamada ya interceptada: firma, argumentos y advice desactivados */
+    private final class Call {
+
+        private final Logger logger;
+        private final String method;
+        private final Method target;
+        private final Object[] args;
+        private final long off;
+
+        Call(Logger logger, String method, Method target, Object[] args, long off) {
+            this.logger = logger;
+            this.method = method;
+            this.target = target;
+            this.args = args;
+            this.off = off;
+        }
+
+        /* loggerAround (antes de proceed) y loggerBefore; devuelve el inicio de la llamada */
+        long subscribe() {
+            if (!AdviceId.AROUND.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AROUND_ENTER, method, target, args, null, 0L);
+            }
+            if (!AdviceId.BEFORE.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.BEFORE, method, target, args, null, 0L);
+            }
+            return System.nanoTime();
+        }
+
+        void complete(Object result, long start) {
+            long elapsed = System.nanoTime() - start;
+            if (!AdviceId.AFTER_RETURNING.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AFTER_RETURNING, method, target, args, result,
+                        elapsed);
+            }
+            if (!AdviceId.AFTER.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AFTER, method, target, args, null, elapsed);
+            }
+            if (!AdviceId.AROUND.in(off)) {
+                latencyRecorder.record(target, elapsed, true);
+                journal.appendLater(target, args, null, elapsed);
+                invocationEvents.tryPublish(logger, InvocationPhase.AROUND_RETURN, method, target, args, result,
+                        elapsed);
+            }
+        }
+
+        void fail(Throwable error, long start) {
+            long elapsed = System.nanoTime() - start;
+            if (!AdviceId.AFTER_THROWING.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AFTER_THROWING, method, target, args, error,
+                        elapsed);
+            }
+            if (!AdviceId.AFTER.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AFTER, method, target, args, null, elapsed);
+            }
+            if (!AdviceId.AROUND.in(off)) {
+                latencyRecorder.record(target, elapsed, false);
+                errorCounter.record(target, error);
+                journal.appendLater(target, args, error, elapsed);
+                invocationEvents.tryPublish(logger, InvocationPhase.AROUND_ERROR, method, target, args, error, elapsed);
+            }
+        }
+
+        /* Cancelada antes de terminar: sólo loggerAfter, que también se ejecuta en un finally */
+        void cancel(long start) {
+            if (!AdviceId.AFTER.in(off)) {
+                invocationEvents.tryPublish(logger, InvocationPhase.AFTER, method, target, args, null,
+                        System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.springboot.app.springboot_aop.aop;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Adapta el contexto cuando los aspectos se han tejido en el bytecode con ajc
+ * (perfil ajc, ver src/main/aspectj/aop-ajc.xml). En la compilación normal no
+ * hace nada y los aspectos se aplican con proxies como siempre.
+ *
+ * Con los aspectos tejidos:
+ * - Cada aspecto es un singleton que crea AspectJ (aspectOf()); su bean se
+ * define con ese método de fábrica para que Spring inyecte los campos
+ * (@Autowired) en la misma instancia que ejecuta el advice.
+ * - El creador de proxies ignora esos beans, de lo contrario cada advice se
+ * ejecutaría dos veces: una tejida y otra en el proxy.
+ * - greeting.aop.mode=fused no tiene sentido: el advice tejido se ejecuta
+ * siempre, así que GreetingFusedAspect se descarta.
+ */
+@Component
+public class WovenAspectsPostProcessor implements BeanDefinitionRegistryPostProcessor {
+
+    /* Los mismos aspectos que lista aop-ajc.xml */
+    static final List<Class<?>> WOVEN_ASPECTS = List.of(GreetingServicePointcuts.class, GreetingFooAspect.class,
+            GreetingAspect.class);
+
+    private static final String FACTORY_METHOD = "aspectOf";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /* true si esta compilación se tejió con ajc */
+    public static boolean isWoven() {
+        return WOVEN_ASPECTS.stream().allMatch(WovenAspectsPostProcessor::isWoven);
+    }
+
+    private static boolean isWoven(Class<?> aspect) {
+        return ClassUtils.hasAtLeastOneMethodWithName(aspect, FACTORY_METHOD);
+    }
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        if (!isWoven()) {
+            return;
+        }
+        for (Class<?> aspect : WOVEN_ASPECTS) {
+            String beanName = StringUtils.uncapitalize(aspect.getSimpleName());
+            if (!registry.containsBeanDefinition(beanName)) {
+                /* Excluido por @ConditionalOnProperty, pero su advice tejido se ejecuta igual */
+                registry.registerBeanDefinition(beanName, new RootBeanDefinition(aspect));
+            }
+            ((AbstractBeanDefinition) registry.getBeanDefinition(beanName)).setFactoryMethodName(FACTORY_METHOD);
+        }
+
+        String fused = StringUtils.uncapitalize(GreetingFusedAspect.class.getSimpleName());
+        if (registry.containsBeanDefinition(fused)) {
+            logger.warn("Los aspectos estan tejidos con ajc: se ignora greeting.aop.mode=fused");
+            registry.removeBeanDefinition(fused);
+        }
+
+        if (registry.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+            BeanDefinition proxyCreator = registry.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+            proxyCreator.getPropertyValues().add("includePatterns", List.of(notWovenPattern()));
+        }
+    }
+
+    /* Cualquier nombre de bean salvo los de los aspectos tejidos */
+    private static String notWovenPattern() {
+        return WOVEN_ASPECTS.stream()
+                .map(aspect -> StringUtils.uncapitalize(aspect.getSimpleName()))
+                .collect(Collectors.joining("|", "^(?!(?:", ")$).*"));
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+    }
+}
@@ -0,0 +1,113 @@
+package com.springboot.app.springboot_aop.aop.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.springboot.app.springboot_aop.aop.support.ArgumentsKey;
+
+/**
+ * Caché acotada de resultados de un método, con la tupla de argumentos como
+ * clave.
+ *
+ * Las entradas viven en un ConcurrentHashMap y sus claves en una cola por orden
+ * de llegada. Al superar el tamaño máximo se expulsa con el algoritmo del reloj
+ * (segunda oportunidad): la entrada más antigua sale si no se ha leído desde la
+ * última pasada; si se ha leído, se le quita la marca y vuelve al final de la
+ * cola. Es una aproximación a LRU en la que un acierto sólo escribe un booleano
+ * y nadie toma un lock global.
+ *
+ * Las entradas caducadas no se borran al leerlas: cuentan como fallo, se
+ * sustituyen al volver a guardar el resultado y, cuando les toca en la cola,
+ * salen sin segunda oportunidad.
+ */
+final class MemoCache {
+
+    /* Resultado de get cuando no hay un valor válido (el valor guardado puede ser null) */
+    static final Object MISSING = new Object();
+
+    private final ConcurrentHashMap<ArgumentsKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ArgumentsKey> order = new ConcurrentLinkedQueue<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder expirations = new LongAdder();
+
+    /* ttlNanos <= 0: sin caducidad */
+    MemoCache(int maxSize, long ttlNanos, LongSupplier clock) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    Object get(Object[] args) {
+        Entry entry = entries.get(new ArgumentsKey(args));
+        if (entry == null || isExpired(entry, clock.getAsLong())) {
+            misses.increment();
+            return MISSING;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    void put(Object[] args, Object value) {
+        ArgumentsKey key = new ArgumentsKey(args);
+        long expiresAt = ttlNanos > 0 ? clock.getAsLong() + ttlNanos : 0;
+        /* Si la clave ya estaba, ya tiene su sitio en la cola */
+        if (entries.put(key, new Entry(value, expiresAt)) == null) {
+            order.offer(key);
+            evictIfNeeded();
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > maxSize) {
+            ArgumentsKey key = order.poll();
+            if (key == null) {
+                return;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                continue;
+            }
+            boolean expired = isExpired(entry, clock.getAsLong());
+            if (entry.referenced && !expired) {
+                entry.referenced = false;
+                order.offer(key);
+            } else if (entries.remove(key, entry)) {
+                (expired ? expirations : evictions).increment();
+            } else {
+                /* Otro hilo la sustituyó entre get y remove: sigue en el mapa */
+                order.offer(key);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlNanos > 0 && now - entry.expiresAt >= 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final long expiresAt;
+        volatile boolean referenced;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
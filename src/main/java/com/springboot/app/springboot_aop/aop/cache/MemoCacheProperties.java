@@ -0,0 +1,45 @@
+package com.springboot.app.springboot_aop.aop.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link MemoizingAspect} (prefijo greeting.aop.cache).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.cache")
+public class MemoCacheProperties {
+
+    /* Desactivado por defecto: los métodos @Memoized se ejecutan siempre */
+    private boolean enabled;
+
+    /* Resultados por método, salvo que @Memoized indique otro valor */
+    private int maxSize = 1024;
+
+    /* Sin valor los resultados no caducan; sólo salen de la caché por tamaño */
+    private Duration ttl;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
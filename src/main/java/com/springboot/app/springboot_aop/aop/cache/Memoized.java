@@ -0,0 +1,25 @@
+package com.springboot.app.springboot_aop.aop.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método cuyo resultado se guarda en caché según sus argumentos
+ * ({@link MemoizingAspect}). Sólo tiene sentido en métodos sin efectos
+ * secundarios y con argumentos inmutables: una llamada repetida devuelve el
+ * resultado guardado sin ejecutar el método ni el resto de aspectos.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Memoized {
+
+    /* Número máximo de resultados; 0 usa greeting.aop.cache.max-size */
+    int maxSize() default 0;
+
+    /* Caducidad de cada resultado (por ejemplo "30s"); vacío usa greeting.aop.cache.ttl */
+    String ttl() default "";
+}
@@ -0,0 +1,96 @@
+package com.springboot.app.springboot_aop.aop.cache;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Devuelve el resultado guardado de los métodos anotados con {@link Memoized}
+ * cuando se repiten los argumentos. Cada método tiene su propia
+ * {@link MemoCache}.
+ *
+ * Con @Order(-30) envuelve a GreetingFooAspect (1) y GreetingAspect (2): en un
+ * acierto no se ejecuta el método ni ninguno de sus advice, así que la llamada
+ * no deja líneas de log ni latencias. En un fallo la llamada sigue la cadena
+ * normal y el log es el mismo que sin caché. Las excepciones no se guardan.
+ *
+ * Métricas por método: greeting.aop.cache.hits, greeting.aop.cache.misses,
+ * greeting.aop.cache.evictions (cause=size|expired) y greeting.aop.cache.size.
+ */
+@Order(-30)
+@Aspect
+@Component
+@EnableConfigurationProperties(MemoCacheProperties.class)
+public class MemoizingAspect {
+
+    @Autowired
+    private MemoCacheProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Method, MemoCache> caches = new ConcurrentHashMap<>();
+
+    @Around("@annotation(memoized)")
+    public Object memoize(ProceedingJoinPoint joinPoint, Memoized memoized) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MemoCache cache = caches.get(method);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(method, m -> register(m, memoized));
+        }
+
+        Object[] args = joinPoint.getArgs();
+        Object cached = cache.get(args);
+        if (cached != MemoCache.MISSING) {
+            return cached;
+        }
+        Object result = joinPoint.proceed();
+        cache.put(args, result);
+        return result;
+    }
+
+    private MemoCache register(Method method, Memoized memoized) {
+        int maxSize = memoized.maxSize() > 0 ? memoized.maxSize() : properties.getMaxSize();
+        Duration ttl = memoized.ttl().isEmpty() ? properties.getTtl() : DurationStyle.detectAndParse(memoized.ttl());
+        MemoCache cache = new MemoCache(maxSize, ttl != null ? ttl.toNanos() : 0, System::nanoTime);
+
+        String signature = MethodLatencyRecorder.signature(method);
+        meterRegistry.ifAvailable(registry -> {
+            counter("greeting.aop.cache.hits", signature, cache.hits).register(registry);
+            counter("greeting.aop.cache.misses", signature, cache.misses).register(registry);
+            counter("greeting.aop.cache.evictions", signature, cache.evictions)
+                    .tag("cause", "size").register(registry);
+            counter("greeting.aop.cache.evictions", signature, cache.expirations)
+                    .tag("cause", "expired").register(registry);
+            Gauge.builder("greeting.aop.cache.size", cache, MemoCache::size)
+                    .tag("method", signature).register(registry);
+        });
+        return cache;
+    }
+
+    private static FunctionCounter.Builder<LongAdder> counter(String name, String signature, LongAdder count) {
+        return FunctionCounter.builder(name, count, LongAdder::sum).tag("method", signature);
+    }
+}
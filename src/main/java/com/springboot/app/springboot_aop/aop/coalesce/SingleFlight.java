@@ -0,0 +1,21 @@
+package com.springboot.app.springboot_aop.aop.coalesce;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método cuyas llamadas simultáneas con los mismos argumentos se
+ * agrupan en una sola ejecución ({@link SingleFlightAspect}). Todas reciben el
+ * mismo resultado o la misma excepción.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SingleFlight {
+
+    /* Espera máxima por la llamada en curso (por ejemplo "2s"); vacío usa greeting.aop.single-flight.max-wait */
+    String maxWait() default "";
+}
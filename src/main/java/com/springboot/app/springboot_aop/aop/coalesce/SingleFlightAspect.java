@@ -0,0 +1,86 @@
+package com.springboot.app.springboot_aop.aop.coalesce;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa las llamadas simultáneas a un método {@link SingleFlight} con los
+ * mismos argumentos: sólo una ejecuta el método y el resto recibe su resultado
+ * o su excepción ({@link SingleFlightGroup}).
+ *
+ * Con @Order(-20) queda dentro de MemoizingAspect (-30) y fuera de
+ * GreetingFooAspect (1) y GreetingAspect (2): sólo se agrupan los fallos de
+ * caché, y las llamadas agrupadas no pasan por los advice de log, igual que un
+ * acierto de caché.
+ *
+ * Métricas por método: greeting.aop.singleflight.calls
+ * (role=leader|coalesced|timeout) y greeting.aop.singleflight.inflight.
+ */
+@Order(-20)
+@Aspect
+@Component
+@EnableConfigurationProperties(SingleFlightProperties.class)
+public class SingleFlightAspect {
+
+    @Autowired
+    private SingleFlightProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Method, SingleFlightGroup> groups = new ConcurrentHashMap<>();
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SingleFlightGroup group = groups.get(method);
+        if (group == null) {
+            group = groups.computeIfAbsent(method, m -> register(m, singleFlight));
+        }
+        return group.execute(joinPoint.getArgs(), joinPoint::proceed);
+    }
+
+    private SingleFlightGroup register(Method method, SingleFlight singleFlight) {
+        Duration maxWait = singleFlight.maxWait().isEmpty() ? properties.getMaxWait()
+                : DurationStyle.detectAndParse(singleFlight.maxWait());
+        SingleFlightGroup group = new SingleFlightGroup(maxWait != null ? maxWait.toNanos() : 0);
+
+        String signature = MethodLatencyRecorder.signature(method);
+        meterRegistry.ifAvailable(registry -> {
+            calls(signature, "leader", group.leaders).register(registry);
+            calls(signature, "coalesced", group.coalesced).register(registry);
+            calls(signature, "timeout", group.timeouts).register(registry);
+            Gauge.builder("greeting.aop.singleflight.inflight", group, SingleFlightGroup::inFlight)
+                    .tag("method", signature).register(registry);
+        });
+        return group;
+    }
+
+    private static FunctionCounter.Builder<LongAdder> calls(String signature, String role, LongAdder count) {
+        return FunctionCounter.builder("greeting.aop.singleflight.calls", count, LongAdder::sum)
+                .tags("method", signature, "role", role);
+    }
+}
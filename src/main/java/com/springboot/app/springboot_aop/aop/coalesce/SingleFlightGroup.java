@@ -0,0 +1,93 @@
+package com.springboot.app.springboot_aop.aop.coalesce;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.springboot.app.springboot_aop.aop.support.ArgumentsKey;
+
+/**
+ * Llamadas en curso de un método, por tupla de argumentos.
+ *
+ * La primera llamada con unos argumentos publica un CompletableFuture en un
+ * ConcurrentHashMap (putIfAbsent, sin lock global) y ejecuta el método; las que
+ * llegan mientras tanto con los mismos argumentos esperan ese future. Al
+ * terminar se retira el future antes de completarlo, de modo que una llamada
+ * posterior vuelve a ejecutar el método en vez de recibir un resultado viejo.
+ * Si se interrumpe a quien espera, recibe una CancellationException.
+ */
+final class SingleFlightGroup {
+
+    @FunctionalInterface
+    interface Call {
+        Object proceed() throws Throwable;
+    }
+
+    private final ConcurrentHashMap<ArgumentsKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    /* Llamadas que ejecutaron el método, que recibieron el resultado de otra y que se cansaron de esperar */
+    final LongAdder leaders = new LongAdder();
+    final LongAdder coalesced = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+
+    /* maxWaitNanos <= 0: sin límite */
+    SingleFlightGroup(long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    Object execute(Object[] args, Call call) throws Throwable {
+        ArgumentsKey key = new ArgumentsKey(args);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> current = inFlight.putIfAbsent(key, flight);
+        return current == null ? lead(key, flight, call) : await(current, call);
+    }
+
+    private Object lead(ArgumentsKey key, CompletableFuture<Object> flight, Call call) throws Throwable {
+        leaders.increment();
+        Object result;
+        try {
+            result = call.proceed();
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    private Object await(CompletableFuture<Object> current, Call call) throws Throwable {
+        try {
+            Object result = maxWaitNanos > 0 ? current.get(maxWaitNanos, TimeUnit.NANOSECONDS) : current.get();
+            coalesced.increment();
+            return result;
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            /* La misma instancia que lanzó la llamada que se ejecutó */
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return call.proceed();
+        } catch (InterruptedException e) {
+            /*
+             * Quien interrumpe quiere que el hilo deje de trabajar: no se ejecuta
+             * el método por su cuenta (repetiría el trabajo y con la interrupción
+             * pendiente fallaría cualquier espera dentro)
+             */
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Interrumpido esperando la llamada en curso");
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
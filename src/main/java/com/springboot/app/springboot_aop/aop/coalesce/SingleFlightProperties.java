@@ -0,0 +1,37 @@
+package com.springboot.app.springboot_aop.aop.coalesce;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link SingleFlightAspect} (prefijo greeting.aop.single-flight).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.single-flight")
+public class SingleFlightProperties {
+
+    /* Desactivado por defecto: cada llamada se ejecuta por su cuenta */
+    private boolean enabled;
+
+    /*
+     * Pasado este tiempo, quien espera la llamada en curso deja de esperar y
+     * ejecuta el método él mismo; cero espera sin límite
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
@@ -0,0 +1,404 @@
+package com.springboot.app.springboot_aop.aop.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.aspectj.lang.JoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderer;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+/**
+ * Diario binario de las llamadas a GreetingService (greeting.aop.journal.enabled).
+ * loggerAround añade un registro por llamada con la firma, los argumentos, el
+ * resultado (correcto o la excepción) y la duración, sin pasar por SLF4J ni
+ * por ningún appender de texto. El formato está en {@link JournalFormat} y se
+ * lee con {@link JournalReader}.
+ *
+ * Cada segmento es un fichero de tamaño fijo proyectado en memoria
+ * (MappedByteBuffer): un registro se escribe directamente en las páginas del
+ * fichero, sin buffers intermedios ni llamadas al sistema, y el sistema
+ * operativo las lleva a disco. Las firmas, las excepciones y, en modo VALUE,
+ * los argumentos se escriben una sola vez por segmento y después se referencian
+ * por su id. Al llenarse un segmento se empieza el siguiente y se borran los
+ * más antiguos a partir de greeting.aop.journal.max-segments.
+ *
+ * Los registros se añaden de uno en uno con un ReentrantLock (no synchronized,
+ * para no anclar los hilos virtuales); la sección crítica sólo copia unos
+ * pocos bytes. Al rotar, dentro del lock sólo se abre el segmento nuevo: el
+ * hilo greeting-aop-journal lleva el anterior a disco (force()) y borra los
+ * antiguos fuera del lock. El byte de tipo de cada registro se escribe el
+ * último, de modo que un lector que abra el segmento mientras se escribe nunca
+ * ve un registro a medias.
+ *
+ * appendLater() no toma el lock: deja el registro en una cola y lo escribe el
+ * hilo greeting-aop-journal. Es para las señales de Mono y Flux, que no deben
+ * esperar al lock ni a la escritura en el fichero; con MAX_PENDING registros
+ * pendientes el nuevo se descarta.
+ */
+@Component
+@EnableConfigurationProperties(JournalProperties.class)
+public class InvocationJournal implements SmartLifecycle {
+
+    private static final int MAX_TEXT_LENGTH = 1024;
+
+    /* Registros de appendLater() que pueden esperar al hilo del diario */
+    private static final int MAX_PENDING = 8192;
+
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final JournalProperties properties;
+    private final ArgumentRenderer argumentRenderer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean running;
+    /* Protegidos por lock */
+    private Segment segment;
+    private long nextIndex;
+
+    private final Queue<PendingRecord> pending = new ConcurrentLinkedQueue<>();
+    /* Segmentos llenos que el hilo del diario tiene que llevar a disco */
+    private final Queue<MappedByteBuffer> retired = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private Thread writer;
+
+    public InvocationJournal(JournalProperties properties, ArgumentRenderer argumentRenderer) {
+        this.properties = properties;
+        this.argumentRenderer = argumentRenderer;
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /* Los argumentos sólo se leen si el diario está activo */
+    public void append(Method method, JoinPoint joinPoint, Throwable error, long durationNanos) {
+        if (running) {
+            append(method, joinPoint.getArgs(), error, durationNanos);
+        }
+    }
+
+    public void append(Method method, Object[] args, Throwable error, long durationNanos) {
+        if (running) {
+            write(System.currentTimeMillis(), method, args, error, durationNanos);
+        }
+    }
+
+    /* Como append(), pero sin bloquear: lo escribe el hilo del diario */
+    public void appendLater(Method method, Object[] args, Throwable error, long durationNanos) {
+        if (!running) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.offer(new PendingRecord(System.currentTimeMillis(), method, args, error, durationNanos));
+        LockSupport.unpark(writer);
+    }
+
+    /* Registros de appendLater() descartados con la cola llena */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void write(long time, Method method, Object[] args, Throwable error, long durationNanos) {
+        lock.lock();
+        try {
+            Segment current = segment;
+            if (current != null && !current.append(time, method, args, error, durationNanos)) {
+                /* Si no cabe ni en un segmento vacío se descarta */
+                rotate().append(time, method, args, error, durationNanos);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("No se pudo escribir en el diario de invocaciones, se desactiva", e);
+            running = false;
+            segment = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Hilo greeting-aop-journal: escribe los registros de appendLater() y cierra
+     * los segmentos llenos hasta que se para el diario
+     */
+    private void writePending() {
+        for (;;) {
+            PendingRecord record = pending.poll();
+            if (record != null) {
+                pendingCount.decrementAndGet();
+                write(record.time(), record.method(), record.args(), record.error(), record.durationNanos());
+            } else if (!retired.isEmpty()) {
+                retireSegments();
+            } else if (!running) {
+                return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /* Pide al sistema operativo que lleve a disco lo escrito hasta ahora */
+    public void force() {
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.buffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Con el lock: sólo cambia de segmento, el anterior lo cierra el hilo del diario */
+    private Segment rotate() throws IOException {
+        Segment full = segment;
+        segment = open(nextIndex++);
+        if (full != null) {
+            retired.offer(full.buffer);
+            LockSupport.unpark(writer);
+        }
+        return segment;
+    }
+
+    /* Sin el lock: lleva a disco los segmentos llenos y borra los que sobran */
+    private void retireSegments() {
+        MappedByteBuffer buffer;
+        while ((buffer = retired.poll()) != null) {
+            buffer.force();
+        }
+        try {
+            deleteOldSegments();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("No se pudieron borrar los segmentos antiguos del diario de invocaciones", e);
+        }
+    }
+
+    private Segment open(long index) throws IOException {
+        int size = (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+        Path file = properties.getDirectory().resolve(JournalFormat.segmentName(index));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            /* La proyección sigue siendo válida después de cerrar el canal */
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(JournalFormat.MAGIC)
+                    .putShort(JournalFormat.VERSION)
+                    .putLong(index)
+                    .putLong(System.currentTimeMillis());
+            return new Segment(buffer);
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        if (properties.getMaxSegments() <= 0) {
+            return;
+        }
+        List<Path> segments = JournalReader.segments(properties.getDirectory());
+        for (int i = 0; i < segments.size() - properties.getMaxSegments(); i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        lock.lock();
+        try {
+            Files.createDirectories(properties.getDirectory());
+            try (Stream<Path> files = Files.list(properties.getDirectory())) {
+                nextIndex = files.mapToLong(file -> JournalFormat.segmentIndex(file.getFileName().toString()))
+                        .max().orElse(-1) + 1;
+            }
+            rotate();
+            deleteOldSegments();
+            writer = new Thread(this::writePending, "greeting-aop-journal");
+            writer.setDaemon(true);
+            running = true;
+            writer.start();
+            logger.info("Diario de invocaciones en " + properties.getDirectory());
+        } catch (IOException e) {
+            logger.warn("No se pudo abrir el diario de invocaciones en " + properties.getDirectory(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            /* Escribe lo que quede en la cola antes de cerrar el segmento */
+            LockSupport.unpark(current);
+            try {
+                current.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.buffer.force();
+                segment = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        /* Los que el hilo no llegó a cerrar */
+        retireSegments();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record PendingRecord(long time, Method method, Object[] args, Throwable error, long durationNanos) {
+    }
+
+    /* Un segmento abierto y su tabla de textos */
+    private final class Segment {
+
+        private final MappedByteBuffer buffer;
+        /* Method, Class de la excepción o texto del argumento -> id en la tabla de textos */
+        private final Map<Object, Integer> strings = new HashMap<>();
+        private int internedValues;
+        /* Tipo y valor de cada argumento del registro que se está escribiendo */
+        private byte[] kinds = new byte[0];
+        private int[] values = new int[0];
+
+        Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /* false si el registro no cabe: hay que pasar al siguiente segmento */
+        boolean append(long time, Method method, Object[] args, Throwable error, long durationNanos) {
+            int methodId = intern(method);
+            int errorId = error == null ? JournalFormat.NO_EXCEPTION : intern(error.getClass());
+            if (methodId < 0 || (error != null && errorId < 0)) {
+                return false;
+            }
+            int count = args != null ? Math.min(args.length, Byte.MAX_VALUE) : 0;
+            if (!argumentValues(method, args, count)) {
+                return false;
+            }
+
+            int length = JournalFormat.INVOCATION_FIXED_BYTES + count * JournalFormat.ARG_BYTES;
+            if (buffer.remaining() < JournalFormat.RECORD_HEADER_BYTES + length) {
+                return false;
+            }
+            int start = buffer.position();
+            buffer.position(start + 1);
+            buffer.putInt(length)
+                    .putLong(time)
+                    .putLong(durationNanos)
+                    .putInt(methodId)
+                    .putInt(errorId)
+                    .put((byte) count);
+            for (int i = 0; i < count; i++) {
+                buffer.put(kinds[i]).putInt(values[i]);
+            }
+            buffer.put(start, JournalFormat.INVOCATION);
+            return true;
+        }
+
+        /*
+         * Rellena kinds y values (hash o id del texto) con los argumentos; false
+         * si un texto nuevo no cabe en el segmento
+         */
+        private boolean argumentValues(Method method, Object[] args, int count) {
+            if (kinds.length < count) {
+                kinds = new byte[count];
+                values = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                Object arg = args[i];
+                if (argumentRenderer.isRedacted(method, i)) {
+                    kinds[i] = JournalFormat.ARG_REDACTED;
+                } else if (arg == null) {
+                    kinds[i] = JournalFormat.ARG_NULL;
+                } else if (properties.getArguments() == JournalProperties.ArgumentMode.VALUE
+                        && internable(arg)) {
+                    String text = arg instanceof Object[] array ? Arrays.deepToString(array) : String.valueOf(arg);
+                    boolean known = strings.containsKey(text);
+                    int id = intern(text);
+                    if (id < 0) {
+                        return false;
+                    }
+                    if (!known) {
+                        internedValues++;
+                    }
+                    kinds[i] = JournalFormat.ARG_STRING;
+                    values[i] = id;
+                } else {
+                    kinds[i] = JournalFormat.ARG_HASH;
+                    values[i] = arg.hashCode();
+                }
+            }
+            return true;
+        }
+
+        /* Pasado el límite de textos por segmento sólo se reutilizan los ya escritos */
+        private boolean internable(Object arg) {
+            return internedValues < properties.getMaxInternedValues()
+                    || (arg instanceof String && strings.containsKey(arg));
+        }
+
+        /*
+         * Id de la firma, el nombre de la excepción o el texto en la tabla del
+         * segmento, escribiéndolo si es nuevo; -1 si no cabe
+         */
+        private int intern(Object key) {
+            Integer id = strings.get(key);
+            if (id != null) {
+                return id;
+            }
+            String text = key instanceof Method method ? MethodLatencyRecorder.signature(method)
+                    : key instanceof Class<?> type ? type.getName() : (String) key;
+            String bounded = text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+            byte[] bytes = bounded.getBytes(StandardCharsets.UTF_8);
+            int length = 4 + 2 + bytes.length;
+            if (buffer.remaining() < JournalFormat.RECORD_HEADER_BYTES + length) {
+                return -1;
+            }
+            int newId = strings.size();
+            int start = buffer.position();
+            buffer.position(start + 1);
+            buffer.putInt(length).putInt(newId).putShort((short) bytes.length).put(bytes);
+            buffer.put(start, JournalFormat.STRING);
+            strings.put(key, newId);
+            return newId;
+        }
+    }
+}
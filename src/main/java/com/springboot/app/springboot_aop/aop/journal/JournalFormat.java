@@ -0,0 +1,64 @@
+package com.springboot.app.springboot_aop.aop.journal;
+
+/**
+ * Formato binario de los segmentos del diario (big-endian).
+ *
+ * Cabecera del segmento: MAGIC (int), VERSION (short), índice del segmento
+ * (long) y hora de creación en milisegundos (long).
+ *
+ * Después, registros con un byte de tipo y un int con la longitud del resto:
+ * - STRING: id (int), longitud (short) y el texto en UTF-8. Define una entrada
+ * de la tabla de textos del segmento (firmas, excepciones y argumentos).
+ * - INVOCATION: hora en milisegundos (long), duración en nanosegundos (long),
+ * id de la firma (int), id de la excepción o -1 (int), número de argumentos
+ * (byte) y cada argumento: ARG_NULL, ARG_REDACTED, ARG_HASH + int o
+ * ARG_STRING + id (int).
+ *
+ * Un byte de tipo 0 marca el final de los datos: el resto del fichero está sin
+ * escribir. Cada segmento es independiente, con su propia tabla de textos.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x47524a31; // "GRJ1"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8 + 8;
+
+    static final byte END = 0;
+    static final byte STRING = 'S';
+    static final byte INVOCATION = 'I';
+
+    /* Tipo y longitud de cada registro */
+    static final int RECORD_HEADER_BYTES = 1 + 4;
+    static final int INVOCATION_FIXED_BYTES = 8 + 8 + 4 + 4 + 1;
+    static final int ARG_BYTES = 1 + 4;
+
+    static final byte ARG_NULL = 0;
+    static final byte ARG_REDACTED = 1;
+    static final byte ARG_HASH = 2;
+    static final byte ARG_STRING = 3;
+
+    static final int NO_EXCEPTION = -1;
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".bin";
+
+    private JournalFormat() {
+    }
+
+    static String segmentName(long index) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /* Índice del segmento, o -1 si el nombre no es de un segmento */
+    static long segmentIndex(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(),
+                    fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.springboot.app.springboot_aop.aop.journal;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuración de {@link InvocationJournal} (prefijo greeting.aop.journal).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.journal")
+public class JournalProperties {
+
+    public enum ArgumentMode {
+        /* hashCode() de cada argumento: no guarda datos de la petición */
+        HASH,
+        /* El texto de cada argumento, una vez por segmento en la tabla de textos */
+        VALUE
+    }
+
+    private boolean enabled = false;
+
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "greeting-journal");
+
+    /* Tamaño de cada segmento; al llenarse se empieza otro */
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    /* Segmentos que se conservan; los más antiguos se borran. 0: todos */
+    private int maxSegments = 8;
+
+    private ArgumentMode arguments = ArgumentMode.HASH;
+
+    /* Textos distintos por segmento en modo VALUE; a partir de ahí se guarda el hash */
+    private int maxInternedValues = 65_536;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public ArgumentMode getArguments() {
+        return arguments;
+    }
+
+    public void setArguments(ArgumentMode arguments) {
+        this.arguments = arguments;
+    }
+
+    public int getMaxInternedValues() {
+        return maxInternedValues;
+    }
+
+    public void setMaxInternedValues(int maxInternedValues) {
+        this.maxInternedValues = maxInternedValues;
+    }
+}
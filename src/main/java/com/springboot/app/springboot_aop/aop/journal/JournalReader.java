@@ -0,0 +1,237 @@
+package com.springboot.app.springboot_aop.aop.journal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lee los segmentos escritos por {@link InvocationJournal}, sin Spring ni el
+ * resto de la aplicación. Se puede usar desde código o desde la línea de
+ * comandos:
+ *
+ * java -cp target/classes com.springboot.app.springboot_aop.aop.journal.JournalReader
+ * <directorio|segmento>... [--method=texto] [--outcome=ok|error] [--summary]
+ *
+ * Sin --summary escribe una línea por llamada; con --summary, el número de
+ * llamadas, fallos y la duración media y máxima de cada método.
+ */
+public final class JournalReader {
+
+    private JournalReader() {
+    }
+
+    /* Una llamada leída del diario */
+    public record JournalEntry(long segment, Instant time, String method, String exception, long durationNanos,
+            List<String> args) {
+
+        public boolean failed() {
+            return exception != null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s %s %.1fus %s", time, method, failed() ? exception : "ok",
+                    durationNanos / 1_000.0, args);
+        }
+    }
+
+    /* Totales de un método para --summary */
+    public static final class Summary {
+
+        private long count;
+        private long failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        void add(JournalEntry entry) {
+            count++;
+            if (entry.failed()) {
+                failures++;
+            }
+            totalNanos += entry.durationNanos();
+            maxNanos = Math.max(maxNanos, entry.durationNanos());
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long failures() {
+            return failures;
+        }
+
+        public double averageMicros() {
+            return count == 0 ? 0 : totalNanos / 1_000.0 / count;
+        }
+
+        public double maxMicros() {
+            return maxNanos / 1_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "llamadas=%d fallos=%d media=%.1fus max=%.1fus", count, failures,
+                    averageMicros(), maxMicros());
+        }
+    }
+
+    /* Los segmentos de un directorio (o el propio fichero), del más antiguo al más reciente */
+    public static List<Path> segments(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> JournalFormat.segmentIndex(file.getFileName().toString()) >= 0)
+                    .sorted(Comparator.comparingLong(file -> JournalFormat.segmentIndex(file.getFileName().toString())))
+                    .toList();
+        }
+    }
+
+    /* Todas las llamadas de los segmentos de path, en el orden en que se escribieron */
+    public static List<JournalEntry> readAll(Path path) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Path segment : segments(path)) {
+            read(segment, entries::add);
+        }
+        return entries;
+    }
+
+    /*
+     * Lee un segmento hasta el final de los datos. Un registro a medias (el
+     * segmento se está escribiendo o se cortó) termina la lectura sin error.
+     */
+    public static void read(Path segment, Consumer<JournalEntry> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < JournalFormat.HEADER_BYTES || buffer.getInt() != JournalFormat.MAGIC) {
+            throw new IOException("No es un segmento del diario: " + segment);
+        }
+        short version = buffer.getShort();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Versión " + version + " no soportada: " + segment);
+        }
+        long index = buffer.getLong();
+        buffer.getLong();
+
+        Map<Integer, String> strings = new HashMap<>();
+        try {
+            while (buffer.remaining() >= JournalFormat.RECORD_HEADER_BYTES) {
+                byte type = buffer.get();
+                if (type == JournalFormat.END) {
+                    return;
+                }
+                int length = buffer.getInt();
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                switch (type) {
+                    case JournalFormat.STRING -> {
+                        int id = record.getInt();
+                        byte[] bytes = new byte[record.getShort() & 0xffff];
+                        record.get(bytes);
+                        strings.put(id, new String(bytes, StandardCharsets.UTF_8));
+                    }
+                    case JournalFormat.INVOCATION -> consumer.accept(invocation(index, record, strings));
+                    default -> {
+                        /* Tipo desconocido (versión más nueva): se salta */
+                    }
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            /* Registro incompleto al final del segmento */
+        }
+    }
+
+    private static JournalEntry invocation(long segment, ByteBuffer record, Map<Integer, String> strings) {
+        Instant time = Instant.ofEpochMilli(record.getLong());
+        long durationNanos = record.getLong();
+        String method = strings.get(record.getInt());
+        int exceptionId = record.getInt();
+        String exception = exceptionId == JournalFormat.NO_EXCEPTION ? null : strings.get(exceptionId);
+        int count = record.get();
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = record.get();
+            int value = record.getInt();
+            args.add(switch (kind) {
+                case JournalFormat.ARG_NULL -> "null";
+                case JournalFormat.ARG_REDACTED -> "****";
+                case JournalFormat.ARG_STRING -> strings.get(value);
+                default -> String.format("#%08x", value);
+            });
+        }
+        return new JournalEntry(segment, time, method, exception, durationNanos, args);
+    }
+
+    /* Totales por método, ordenados por firma */
+    public static Map<String, Summary> summarize(List<JournalEntry> entries) {
+        Map<String, Summary> summaries = new TreeMap<>();
+        for (JournalEntry entry : entries) {
+            summaries.computeIfAbsent(entry.method(), method -> new Summary()).add(entry);
+        }
+        return summaries;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        String method = null;
+        String outcome = null;
+        boolean summary = false;
+        for (String arg : args) {
+            if (arg.startsWith("--method=")) {
+                method = arg.substring("--method=".length());
+            } else if (arg.startsWith("--outcome=")) {
+                outcome = arg.substring("--outcome=".length());
+            } else if (arg.equals("--summary")) {
+                summary = true;
+            } else if (arg.startsWith("--")) {
+                err.println("Opción desconocida: " + arg);
+                return 2;
+            } else {
+                paths.add(Path.of(arg));
+            }
+        }
+        if (paths.isEmpty() || (outcome != null && !outcome.equals("ok") && !outcome.equals("error"))) {
+            err.println("Uso: JournalReader <directorio|segmento>... [--method=texto] [--outcome=ok|error] [--summary]");
+            return 2;
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Path path : paths) {
+            entries.addAll(readAll(path));
+        }
+        String methodFilter = method;
+        String outcomeFilter = outcome;
+        entries.removeIf(entry -> (methodFilter != null && !entry.method().contains(methodFilter))
+                || (outcomeFilter != null && entry.failed() != outcomeFilter.equals("error")));
+
+        if (summary) {
+            summarize(entries).forEach((signature, totals) -> out.println(signature + " " + totals));
+        } else {
+            entries.forEach(out::println);
+        }
+        return 0;
+    }
+}
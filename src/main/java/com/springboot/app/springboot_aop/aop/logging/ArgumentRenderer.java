@@ -0,0 +1,264 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Representación de los argumentos de un punto de unión para los logs de los
+ * aspectos.
+ *
+ * Sustituye a Arrays.toString(joinPoint.getArgs()): los aspectos sólo lo usan
+ * después de comprobar que el nivel de log está activo, y escribe en un
+ * StringBuilder reutilizado por hilo en lugar de concatenar cadenas
+ * intermedias. Cada argumento se recorta a greeting.aop.args.max-length
+ * caracteres, los arrays y colecciones a greeting.aop.args.max-elements
+ * elementos, y los parámetros marcados con {@link Redacted} o listados en
+ * greeting.aop.args.redacted-parameters se muestran como "****".
+ *
+ * Mientras no se alcancen los límites, el formato es el mismo que el de
+ * Arrays.toString: [Daniel, Hola que tal!]. La única diferencia es un argumento
+ * que sea un array de objetos: se muestran sus elementos ([a, b]) en lugar de
+ * [Ljava.lang.String;@1b6d3586. Dentro de un array o una colección los arrays
+ * se muestran con String.valueOf, igual que en Arrays.toString.
+ *
+ * Las colecciones anidadas se recorren aquí y se dejan de recorrer al llegar a
+ * max-length, así que una colección enorme no se convierte entera en texto. El
+ * resto de objetos se muestran con su toString(), que no se puede interrumpir:
+ * se recorta el resultado, pero la cadena completa se crea igualmente.
+ *
+ * Si el toString() de un argumento llama a código interceptado, el log de esa
+ * llamada se escribe en un buffer nuevo y no en el del hilo, que sigue ocupado
+ * con la línea que se está formando.
+ */
+@Component
+@EnableConfigurationProperties(ArgumentRenderingProperties.class)
+public class ArgumentRenderer {
+
+    static final String REDACTED = "****";
+
+    static final String ELLIPSIS = "...";
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /* Un buffer que haya crecido por encima de esto no se conserva en el hilo */
+    private static final int MAX_RETAINED_CAPACITY = 8 * 1024;
+
+    private static final boolean[] NOTHING_REDACTED = new boolean[0];
+
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+
+    /* Máscara de parámetros ocultos por método, calculada una sola vez */
+    private final Map<Method, boolean[]> redactions = new ConcurrentHashMap<>();
+
+    private final ArgumentRenderingProperties properties;
+
+    public ArgumentRenderer(ArgumentRenderingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Devuelve el buffer del hilo actual, vacío. El contenido sólo es válido
+     * hasta la siguiente llamada a buffer() en el mismo hilo, por lo que la línea
+     * se debe pasar al logger (toString) antes de continuar. Si se llama mientras
+     * el hilo está mostrando un argumento (desde su toString()), devuelve un
+     * buffer nuevo para no pisar la línea a medias.
+     */
+    public StringBuilder buffer() {
+        ThreadState state = STATE.get();
+        if (state.rendering > 0) {
+            return new StringBuilder(INITIAL_CAPACITY);
+        }
+        if (state.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            state.buffer = new StringBuilder(INITIAL_CAPACITY);
+        }
+        state.buffer.setLength(0);
+        return state.buffer;
+    }
+
+    /* Atajo para los casos en que la representación se reutiliza en varias líneas */
+    public String render(JoinPoint joinPoint) {
+        return appendArgs(buffer(), joinPoint).toString();
+    }
+
+    public StringBuilder appendArgs(StringBuilder line, JoinPoint joinPoint) {
+        Signature signature = joinPoint.getSignature();
+        Method method = signature instanceof MethodSignature methodSignature ? methodSignature.getMethod() : null;
+        return appendArgs(line, method, joinPoint.getArgs());
+    }
+
+    public StringBuilder appendArgs(StringBuilder line, Method method, Object[] args) {
+        boolean[] redacted = method != null ? redactions(method) : NOTHING_REDACTED;
+        int shown = Math.min(args.length, properties.getMaxElements());
+        ThreadState state = STATE.get();
+        state.rendering++;
+        try {
+            line.append('[');
+            for (int i = 0; i < shown; i++) {
+                if (i > 0) {
+                    line.append(", ");
+                }
+                if (i < redacted.length && redacted[i]) {
+                    line.append(REDACTED);
+                } else {
+                    appendValue(line, args[i], true);
+                }
+            }
+            appendRemaining(line, args.length - shown);
+            return line.append(']');
+        } finally {
+            state.rendering--;
+        }
+    }
+
+    /* Un resultado, con los mismos límites que un argumento dentro de un array */
+    public StringBuilder appendValue(StringBuilder line, Object value) {
+        ThreadState state = STATE.get();
+        state.rendering++;
+        try {
+            appendValue(line, value, false);
+            return line;
+        } finally {
+            state.rendering--;
+        }
+    }
+
+    private void appendValue(StringBuilder line, Object value, boolean expand) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof CharSequence text) {
+            appendCapped(line, text);
+        } else if (value instanceof Integer number) {
+            line.append(number.intValue());
+        } else if (value instanceof Long number) {
+            line.append(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            line.append(bool.booleanValue());
+        } else if (expand && value instanceof Object[] array) {
+            appendElements(line, array);
+        } else if (expand && value instanceof Collection<?> collection) {
+            appendElements(line, collection);
+        } else if (value instanceof Collection<?> collection) {
+            appendNested(line, collection);
+        } else {
+            appendCapped(line, String.valueOf(value));
+        }
+    }
+
+    private void appendElements(StringBuilder line, Object[] array) {
+        int shown = Math.min(array.length, properties.getMaxElements());
+        line.append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                line.append(", ");
+            }
+            appendValue(line, array[i], false);
+        }
+        appendRemaining(line, array.length - shown);
+        line.append(']');
+    }
+
+    private void appendElements(StringBuilder line, Collection<?> collection) {
+        int shown = 0;
+        line.append('[');
+        for (Iterator<?> it = collection.iterator(); it.hasNext() && shown < properties.getMaxElements(); shown++) {
+            if (shown > 0) {
+                line.append(", ");
+            }
+            appendValue(line, it.next(), false);
+        }
+        appendRemaining(line, collection.size() - shown);
+        line.append(']');
+    }
+
+    /* Como Collection.toString, pero sin pasar de max-length caracteres */
+    private void appendNested(StringBuilder line, Collection<?> collection) {
+        int limit = line.length() + properties.getMaxLength();
+        line.append('[');
+        Iterator<?> it = collection.iterator();
+        for (boolean first = true; it.hasNext() && line.length() < limit; first = false) {
+            if (!first) {
+                line.append(", ");
+            }
+            Object element = it.next();
+            appendValue(line, element == collection ? "(this Collection)" : element, false);
+        }
+        if (it.hasNext() || line.length() > limit) {
+            line.setLength(Math.min(line.length(), limit));
+            line.append(ELLIPSIS);
+        } else {
+            line.append(']');
+        }
+    }
+
+    private void appendRemaining(StringBuilder line, int remaining) {
+        if (remaining > 0) {
+            line.append(", ").append(ELLIPSIS).append("(+").append(remaining).append(')');
+        }
+    }
+
+    private void appendCapped(StringBuilder line, CharSequence text) {
+        int max = properties.getMaxLength();
+        if (text.length() <= max) {
+            line.append(text);
+        } else {
+            line.append(text, 0, max).append(ELLIPSIS);
+        }
+    }
+
+    /* Las mismas reglas que el log, para otros destinos de los argumentos (InvocationJournal) */
+    public boolean isRedacted(Method method, int index) {
+        boolean[] redacted = redactions(method);
+        return index < redacted.length && redacted[index];
+    }
+
+    private boolean[] redactions(Method method) {
+        boolean[] redacted = redactions.get(method);
+        if (redacted == null) {
+            redacted = redactions.computeIfAbsent(method, this::computeRedactions);
+        }
+        return redacted;
+    }
+
+    private boolean[] computeRedactions(Method method) {
+        String[] names = parameterNames.getParameterNames(method);
+        Annotation[][] annotations = method.getParameterAnnotations();
+        boolean[] redacted = new boolean[method.getParameterCount()];
+        boolean any = false;
+        for (int i = 0; i < redacted.length; i++) {
+            redacted[i] = (names != null && properties.getRedactedParameters().contains(names[i]))
+                    || isAnnotatedRedacted(annotations[i]);
+            any |= redacted[i];
+        }
+        return any ? redacted : NOTHING_REDACTED;
+    }
+
+    private static boolean isAnnotatedRedacted(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == Redacted.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Buffer del hilo y si está mostrando argumentos (para detectar la reentrada) */
+    private static final class ThreadState {
+
+        StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+        int rendering;
+    }
+}
@@ -0,0 +1,47 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Límites para la representación de los argumentos en los logs de los aspectos
+ * (prefijo greeting.aop.args).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.args")
+public class ArgumentRenderingProperties {
+
+    /* Número máximo de caracteres de cada argumento; el resto se recorta */
+    private int maxLength = 256;
+
+    /* Número máximo de argumentos (o elementos de un array) que se muestran */
+    private int maxElements = 16;
+
+    /* Nombres de parámetros cuyo valor se oculta en los logs */
+    private Set<String> redactedParameters = new LinkedHashSet<>();
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    public void setMaxElements(int maxElements) {
+        this.maxElements = maxElements;
+    }
+
+    public Set<String> getRedactedParameters() {
+        return redactedParameters;
+    }
+
+    public void setRedactedParameters(Set<String> redactedParameters) {
+        this.redactedParameters = redactedParameters;
+    }
+}
@@ -0,0 +1,79 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+/**
+ * Evento compacto de una llamada interceptada. Las instancias se reservan una
+ * sola vez como huecos de {@link InvocationEventRing} y se reutilizan: el
+ * productor rellena los campos y el consumidor los formatea y los limpia.
+ *
+ * Los argumentos y el resultado se guardan por referencia sólo si no pueden
+ * cambiar mientras el evento espera en el buffer (String, números, Boolean,
+ * enums, null). Si alguno es otro objeto, el productor escribe la parte de la
+ * línea que los muestra en detail antes de encolar, y no se guardan: así el log
+ * muestra los valores del momento de la llamada y no los de cuando se escribe.
+ *
+ * Como la línea la escribe otro hilo, se guardan también el nombre del hilo que
+ * hizo la llamada y su MDC, que el consumidor restaura al escribirla.
+ */
+public final class InvocationEvent {
+
+    Logger logger;
+    InvocationPhase phase;
+    String method;
+    Method target;
+    Object[] args;
+    /* Resultado (AROUND_RETURN) o excepción (AROUND_ERROR) */
+    Object result;
+    long durationNanos;
+    /* Eventos de la misma fase y método que el muestreo omitió antes de este */
+    long suppressed;
+    /* Argumentos o resultado ya escritos por el productor, o null */
+    String detail;
+    /* Hilo que hizo la llamada y su MDC; null si la línea se escribe en ese mismo hilo */
+    String thread;
+    Map<String, String> context;
+
+    void set(Logger logger, InvocationPhase phase, String method, Method target, Object[] args, Object result,
+            long durationNanos, long suppressed) {
+        this.logger = logger;
+        this.phase = phase;
+        this.method = method;
+        this.target = target;
+        this.args = args;
+        this.result = result;
+        this.durationNanos = durationNanos;
+        this.suppressed = suppressed;
+    }
+
+    void setCaller(String detail, String thread, Map<String, String> context) {
+        this.detail = detail;
+        this.thread = thread;
+        this.context = context;
+    }
+
+    /* Suelta las referencias para no retener argumentos ni resultados en el buffer */
+    void clear() {
+        set(null, null, null, null, null, null, 0L, 0L);
+        setCaller(null, null, null);
+    }
+
+    public Logger logger() {
+        return logger;
+    }
+
+    public InvocationPhase phase() {
+        return phase;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+}
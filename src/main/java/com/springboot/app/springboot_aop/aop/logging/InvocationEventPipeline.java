@@ -0,0 +1,367 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventProperties.OverflowPolicy;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventProperties.Sampling;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Canal por el que los aspectos publican las líneas de log de cada llamada
+ * interceptada.
+ *
+ * Con greeting.aop.events.async=true (por defecto) el advice sólo comprueba el
+ * nivel de log y deja un {@link InvocationEvent} en un
+ * {@link InvocationEventRing}; un hilo consumidor lo vacía por lotes, formatea
+ * la línea y la entrega a SLF4J. Así un appender lento o la escritura en disco
+ * no se suman a la latencia de /greeting. El texto, el logger y el orden de las
+ * líneas son los mismos que en modo síncrono; sólo cambia el hilo que las
+ * escribe. El hilo que hizo la llamada queda en la clave MDC "thread" (%X{thread}
+ * en el patrón del log) junto con el MDC que tenía. Los argumentos y resultados
+ * que podrían cambiar mientras el evento espera se muestran en el hilo de la
+ * llamada antes de encolarlo (ver {@link InvocationEvent}).
+ *
+ * Con greeting.aop.events.sampling.mode (ratio o rate) sólo se escribe una
+ * muestra de los eventos de cada método ({@link InvocationSampler}); las
+ * líneas de error siempre, el resto de líneas de una llamada que falla no.
+ *
+ * Qué hacer con el buffer lleno lo decide greeting.aop.events.overflow-policy;
+ * tryPublish() nunca espera y descarta el evento.
+ * Los eventos encolados, publicados y descartados se exponen en Micrometer
+ * (greeting.aop.events.*). Al parar la aplicación el buffer se vacía antes de
+ * terminar, y a partir de ese momento los eventos se escriben de forma síncrona;
+ * un evento que se encoló justo después de la última pasada lo escribe el propio
+ * productor.
+ */
+@Component
+@EnableConfigurationProperties(InvocationEventProperties.class)
+public class InvocationEventPipeline implements SmartLifecycle {
+
+    /* Fase baja: arranca antes y se para después que el servidor web */
+    private static final int PHASE = 0;
+
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /* Resultados de claim() además de una posición del buffer */
+    private static final long DISCARDED = -1;
+    private static final long WRITE_SYNCHRONOUSLY = -2;
+
+    /* Clave MDC con el hilo que hizo la llamada */
+    public static final String CALLER_THREAD = "thread";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final InvocationEventProperties properties;
+    private final ArgumentRenderer argumentRenderer;
+    private final InvocationEventRing ring;
+    /* null sin muestreo (greeting.aop.events.sampling.mode=none) */
+    private final InvocationSampler sampler;
+    private final long highWaterMark;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    public InvocationEventPipeline(InvocationEventProperties properties, ArgumentRenderer argumentRenderer,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.argumentRenderer = argumentRenderer;
+        this.ring = properties.isAsync() ? new InvocationEventRing(properties.getCapacity()) : null;
+        this.highWaterMark = ring != null ? ring.capacity() * 3L / 4 : 0;
+        this.sampler = properties.getSampling().getMode() != Sampling.Mode.NONE
+                ? new InvocationSampler(properties.getSampling(), System::nanoTime, meterRegistry)
+                : null;
+        if (ring != null) {
+            meterRegistry.ifAvailable(this::registerMetrics);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("greeting.aop.events.queued", ring, InvocationEventRing::size)
+                .description("Eventos de log pendientes de escribir").register(registry);
+        FunctionCounter.builder("greeting.aop.events.published", published, LongAdder::sum)
+                .description("Eventos de log encolados").register(registry);
+        FunctionCounter.builder("greeting.aop.events.dropped", dropped, LongAdder::sum)
+                .tag("reason", "overflow").description("Eventos descartados con el buffer lleno").register(registry);
+        FunctionCounter.builder("greeting.aop.events.dropped", sampledOut, LongAdder::sum)
+                .tag("reason", "sampled").description("Eventos descartados por muestreo").register(registry);
+    }
+
+    public void publish(Logger target, InvocationPhase phase, JoinPoint joinPoint) {
+        publish(target, phase, joinPoint, null, 0L);
+    }
+
+    public void publish(Logger target, InvocationPhase phase, JoinPoint joinPoint, Object result, long durationNanos) {
+        if (!phase.isEnabled(target)) {
+            return;
+        }
+        Signature signature = joinPoint.getSignature();
+        Method method = signature instanceof MethodSignature methodSignature ? methodSignature.getMethod() : null;
+        Object[] args = phase.usesArgs() ? joinPoint.getArgs() : null;
+        publish(target, phase, signature.getName(), method, args, result, durationNanos);
+    }
+
+    /* Variante para quien ya ha leído la firma y los argumentos (GreetingFusedAspect) */
+    public void publish(Logger target, InvocationPhase phase, String method, Method targetMethod, Object[] args,
+            Object result, long durationNanos) {
+        publish(target, phase, method, targetMethod, args, result, durationNanos, true);
+    }
+
+    /*
+     * Como publish(), pero sin esperar nunca a que haya hueco: con el buffer
+     * lleno el evento se descarta aunque la política sea block. Para las señales
+     * de Mono y Flux (ReactiveInvocationObserver), que no deben bloquear el hilo
+     * que las emite
+     */
+    public void tryPublish(Logger target, InvocationPhase phase, String method, Method targetMethod, Object[] args,
+            Object result, long durationNanos) {
+        publish(target, phase, method, targetMethod, args, result, durationNanos, false);
+    }
+
+    private void publish(Logger target, InvocationPhase phase, String method, Method targetMethod, Object[] args,
+            Object result, long durationNanos, boolean mayWait) {
+        if (!phase.isEnabled(target)) {
+            return;
+        }
+        long suppressed = 0;
+        if (sampler != null && targetMethod != null) {
+            suppressed = sampler.sample(targetMethod, phase);
+            if (suppressed == InvocationSampler.SUPPRESS) {
+                return;
+            }
+        }
+        if (running) {
+            long position = claim(phase, mayWait);
+            if (position >= 0) {
+                InvocationEvent event = ring.slot(position);
+                event.set(target, phase, method, targetMethod, args, result, durationNanos, suppressed);
+                capture(event);
+                ring.publish(position);
+                published.increment();
+                if (!running) {
+                    writeAfterStop();
+                }
+                return;
+            }
+            if (position == DISCARDED) {
+                return;
+            }
+        }
+        InvocationEvent event = new InvocationEvent();
+        event.set(target, phase, method, targetMethod, args, result, durationNanos, suppressed);
+        write(event);
+    }
+
+    private long claim(InvocationPhase phase, boolean mayWait) {
+        OverflowPolicy policy = properties.getOverflowPolicy();
+        if (policy == OverflowPolicy.SAMPLE && !phase.isFailure() && ring.size() >= highWaterMark
+                && sampleSequence.getAndIncrement() % properties.getSampleRate() != 0) {
+            sampledOut.increment();
+            return DISCARDED;
+        }
+        long position = ring.claim();
+        if (position >= 0) {
+            return position;
+        }
+        if (policy != OverflowPolicy.BLOCK || !mayWait) {
+            dropped.increment();
+            return DISCARDED;
+        }
+        long backoff = 1_000;
+        while ((position = ring.claim()) < 0) {
+            if (!running) {
+                return WRITE_SYNCHRONOUSLY;
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff << 1, MAX_IDLE_NANOS);
+        }
+        return position;
+    }
+
+    /* En el hilo de la llamada: lo que el consumidor no puede leer después */
+    private void capture(InvocationEvent event) {
+        String detail = null;
+        if (!isImmutable(event.args) || (event.phase.usesResult() && !isImmutable(event.result))) {
+            detail = event.phase.appendDetail(argumentRenderer.buffer(), event.target, event.args, event.result,
+                    argumentRenderer).toString();
+            event.args = null;
+            event.result = null;
+        }
+        Thread caller = Thread.currentThread();
+        String thread = caller.getName().isEmpty() ? "#" + caller.threadId() : caller.getName();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        event.setCaller(detail, thread, context != null && !context.isEmpty() ? context : null);
+    }
+
+    private static boolean isImmutable(Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (!isImmutable(arg)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Boolean || value instanceof Character || value instanceof Double
+                || value instanceof Enum<?>;
+    }
+
+    private void write(InvocationEvent event) {
+        StringBuilder line = event.phase.format(argumentRenderer.buffer(), event, argumentRenderer);
+        if (event.thread == null) {
+            event.phase.log(event.logger, line.toString());
+            return;
+        }
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        try {
+            if (event.context != null) {
+                MDC.setContextMap(event.context);
+            } else {
+                MDC.clear();
+            }
+            MDC.put(CALLER_THREAD, event.thread);
+            event.phase.log(event.logger, line.toString());
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    /*
+     * Un productor que publicó después de que stop() hiciera su última pasada:
+     * escribe él lo que quede, una vez que el consumidor ha terminado
+     */
+    private synchronized void writeAfterStop() {
+        if (!running && consumer != null && !consumer.isAlive()) {
+            while (drainBatch() > 0) {
+            }
+        }
+    }
+
+    private void consume() {
+        long idle = 0;
+        for (;;) {
+            if (drainBatch() > 0) {
+                idle = 0;
+            } else if (!running) {
+                return;
+            } else {
+                idle = Math.min(Math.max(idle << 1, 1_000), MAX_IDLE_NANOS);
+                LockSupport.parkNanos(idle);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int written = 0;
+        InvocationEvent event;
+        while (written < properties.getBatchSize() && (event = ring.peek()) != null) {
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                /* Un appender que falla no debe parar el consumidor */
+                logger.warn("No se pudo escribir el evento de " + event.method, e);
+            } finally {
+                ring.release();
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Espera a que el consumidor haya escrito todos los eventos encolados hasta
+     * ahora, como mucho el tiempo indicado. Devuelve false si no ha dado tiempo.
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (ring != null && ring.size() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(MAX_IDLE_NANOS / 10);
+        }
+        return true;
+    }
+
+    public long queued() {
+        return ring != null ? ring.size() : 0;
+    }
+
+    public long dropped() {
+        return dropped.sum() + sampledOut.sum();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (ring == null || running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "greeting-aop-events");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            consumer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (consumer.isAlive()) {
+            logger.warn("El buffer de eventos no se vacio en " + properties.getShutdownTimeout() + ", quedan "
+                    + ring.size());
+        } else {
+            /* Eventos que algún productor encoló justo mientras se paraba el consumidor */
+            while (drainBatch() > 0) {
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
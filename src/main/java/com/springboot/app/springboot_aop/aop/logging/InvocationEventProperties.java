@@ -0,0 +1,148 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link InvocationEventPipeline} (prefijo greeting.aop.events).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.events")
+public class InvocationEventProperties {
+
+    public enum OverflowPolicy {
+        /* El hilo de la petición espera a que haya hueco: no se pierde ningún evento */
+        BLOCK,
+        /* Con el buffer lleno se descarta el evento nuevo */
+        DROP_NEWEST,
+        /*
+         * A partir de tres cuartos de ocupación sólo se conserva uno de cada
+         * sample-rate eventos (las líneas de error siempre); con el buffer lleno se descarta
+         */
+        SAMPLE
+    }
+
+    /* false: los aspectos escriben el log en el hilo de la petición, como antes */
+    private boolean async = true;
+
+    /* Número de eventos del buffer; se redondea a potencia de dos */
+    private int capacity = 8192;
+
+    /* Eventos que el consumidor escribe en cada pasada antes de volver a comprobar el estado */
+    private int batchSize = 256;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private int sampleRate = 10;
+
+    /* Tiempo máximo para vaciar el buffer al parar la aplicación */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    /* Muestreo por método, con o sin buffer (prefijo greeting.aop.events.sampling) */
+    private final Sampling sampling = new Sampling();
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /* Con 0 o menos se conserva uno de cada uno: no se descarta nada por muestreo */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public static class Sampling {
+
+        public enum Mode {
+            /* Se escriben todos los eventos */
+            NONE,
+            /* Uno de cada ratio eventos de cada fase y método: las líneas de una de cada ratio llamadas */
+            RATIO,
+            /* Como mucho rate líneas por segundo y método, con ráfagas de hasta burst */
+            RATE
+        }
+
+        private Mode mode = Mode.NONE;
+
+        private int ratio = 100;
+
+        private int rate = 10;
+
+        private int burst = 50;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(int ratio) {
+            this.ratio = ratio;
+        }
+
+        public int getRate() {
+            return rate;
+        }
+
+        public void setRate(int rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
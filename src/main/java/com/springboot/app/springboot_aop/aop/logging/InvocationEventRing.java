@@ -0,0 +1,94 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular acotado y sin locks, con varios productores (los hilos de
+ * las peticiones) y un único consumidor (el hilo de
+ * {@link InvocationEventPipeline}).
+ *
+ * Cada hueco tiene un número de secuencia: vale la posición p cuando está libre
+ * para el productor que reclame p, y p + 1 cuando el evento ya está publicado y
+ * lo puede leer el consumidor. Los productores compiten sólo por un CAS sobre
+ * tail; los eventos están reservados de antemano, así que publicar no asigna
+ * memoria.
+ */
+final class InvocationEventRing {
+
+    private final int mask;
+    private final InvocationEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    /* Sólo lo modifica el consumidor; volátil para que size() sea coherente */
+    private volatile long head;
+
+    InvocationEventRing(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new InvocationEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new InvocationEvent();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    long size() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Reclama el siguiente hueco libre. Devuelve su posición, o -1 si el buffer
+     * está lleno. Tras rellenar {@link #slot(long)} hay que llamar a
+     * {@link #publish(long)}.
+     */
+    long claim() {
+        long position = tail.get();
+        for (;;) {
+            long available = sequences.get((int) position & mask) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    InvocationEvent slot(long position) {
+        return slots[(int) position & mask];
+    }
+
+    /*
+     * Escritura volátil y no lazySet: InvocationEventPipeline comprueba justo
+     * después si el consumidor sigue en marcha, y esa lectura no se puede
+     * adelantar a la publicación
+     */
+    void publish(long position) {
+        sequences.set((int) position & mask, position + 1);
+    }
+
+    /* Sólo desde el hilo consumidor: siguiente evento publicado, o null */
+    InvocationEvent peek() {
+        long position = head;
+        return sequences.get((int) position & mask) == position + 1 ? slots[(int) position & mask] : null;
+    }
+
+    /* Sólo desde el hilo consumidor: libera el hueco devuelto por peek() */
+    void release() {
+        long position = head;
+        slots[(int) position & mask].clear();
+        sequences.lazySet((int) position & mask, position + slots.length);
+        head = position + 1;
+    }
+}
@@ -0,0 +1,136 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Momento de la llamada interceptada en que un advice genera un evento, y el
+ * texto de la línea de log que le corresponde. El texto es el mismo que los
+ * aspectos escribían directamente con logger.info, de forma que la salida no
+ * cambia aunque el log se escriba en otro hilo.
+ */
+public enum InvocationPhase {
+
+    /* GreetingFooAspect */
+    FOO_BEFORE(Level.INFO, "Antes (Foo): ", " invocado con los parametros "),
+    FOO_AFTER(Level.INFO, "Despues (Foo): ", " invocado con los parametros "),
+
+    /* GreetingAspect */
+    BEFORE(Level.INFO, "Antes: ", " con los argumentos "),
+    AFTER(Level.INFO, "Despues: ", " con los argumentos "),
+    AFTER_RETURNING(Level.INFO, "Despues de retornar: ", " con los argumentos "),
+    AFTER_THROWING(Level.INFO, "Despues de lanzar la excepcion: ", " con los argumentos "),
+    AROUND_ENTER(Level.INFO, "El metodo: ", "() con los argumentos "),
+    AROUND_RETURN(Level.INFO, "El metodo: ", "() retorna el resultado: ") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return renderer.appendValue(line, result);
+        }
+    },
+    AROUND_ERROR(Level.ERROR, "Error en la llamada del metodo ", "()") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return line;
+        }
+    },
+
+    /* Lotes (greetingBatchPointCut): una línea por lote con los totales en result */
+    FOO_BATCH_BEFORE(Level.INFO, "Antes (Foo): lote ", " iniciado") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return line;
+        }
+    },
+    FOO_BATCH_AFTER(Level.INFO, "Despues (Foo): lote ", " terminado: ") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return renderer.appendValue(line, result);
+        }
+    },
+    BATCH_RETURN(Level.INFO, "El metodo: ", "() proceso el lote: ") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return renderer.appendValue(line, result);
+        }
+    },
+    BATCH_ERROR(Level.ERROR, "Error en el lote del metodo ", "()") {
+        @Override
+        StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+                ArgumentRenderer renderer) {
+            return line;
+        }
+    };
+
+    private final Level level;
+    private final String prefix;
+    private final String infix;
+
+    InvocationPhase(Level level, String prefix, String infix) {
+        this.level = level;
+        this.prefix = prefix;
+        this.infix = infix;
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    /* Indica si la línea incluye los argumentos; si no, no hace falta leerlos */
+    public boolean usesArgs() {
+        return switch (this) {
+            case AROUND_RETURN, AROUND_ERROR, FOO_BATCH_BEFORE, FOO_BATCH_AFTER, BATCH_RETURN, BATCH_ERROR -> false;
+            default -> true;
+        };
+    }
+
+    /* Indica si la línea incluye el resultado */
+    public boolean usesResult() {
+        return this == AROUND_RETURN || this == FOO_BATCH_AFTER || this == BATCH_RETURN;
+    }
+
+    /*
+     * Líneas de error: se registran siempre, también cuando el buffer o el
+     * muestreo descartan eventos. Las demás líneas de la misma llamada no
+     */
+    public boolean isFailure() {
+        return this == AFTER_THROWING || this == AROUND_ERROR || this == BATCH_ERROR;
+    }
+
+    public boolean isEnabled(Logger logger) {
+        return logger.isEnabledForLevel(level);
+    }
+
+    StringBuilder format(StringBuilder line, InvocationEvent event, ArgumentRenderer renderer) {
+        line.append(prefix).append(event.method).append(infix);
+        if (event.detail != null) {
+            line.append(event.detail);
+        } else {
+            appendDetail(line, event.target, event.args, event.result, renderer);
+        }
+        if (event.suppressed > 0) {
+            line.append(" (omitidos por muestreo: ").append(event.suppressed).append(')');
+        }
+        return line;
+    }
+
+    /* Lo que va detrás del nombre del método: los argumentos o el resultado */
+    StringBuilder appendDetail(StringBuilder line, Method target, Object[] args, Object result,
+            ArgumentRenderer renderer) {
+        return renderer.appendArgs(line, target, args);
+    }
+
+    void log(Logger logger, String line) {
+        if (level == Level.ERROR) {
+            logger.error(line);
+        } else {
+            logger.info(line);
+        }
+    }
+}
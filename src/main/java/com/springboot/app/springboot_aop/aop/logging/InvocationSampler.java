@@ -0,0 +1,139 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventProperties.Sampling;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decide qué eventos de log se escriben cuando greeting.aop.events.sampling.mode
+ * no es none. El estado es por método interceptado y sólo usa contadores
+ * atómicos, sin locks.
+ *
+ * - ratio: uno de cada N eventos de cada fase. Los contadores de las fases de
+ * un método avanzan a la vez (uno por llamada), así que se escriben las siete
+ * líneas de una de cada N llamadas y no líneas sueltas de llamadas distintas.
+ * - rate: como mucho rate líneas por segundo y método, con ráfagas de hasta
+ * burst líneas (GCRA, el algoritmo de cubeta de fichas con un único atómico).
+ *
+ * Las líneas de error (AFTER_THROWING, AROUND_ERROR y BATCH_ERROR) se escriben
+ * siempre. El resto de líneas de una llamada que falla siguen el muestreo como
+ * las de cualquier otra: se decide línea a línea, y las anteriores al fallo ya
+ * se han decidido cuando se produce. Con ratio, una llamada fallida de la
+ * muestra deja todas sus líneas y una de fuera sólo las de error. Cada línea
+ * escrita lleva cuántos eventos de su fase se omitieron desde la anterior, y el
+ * total por método se publica en greeting.aop.events.sampled.
+ */
+final class InvocationSampler {
+
+    /* Resultado de sample() para un evento que no se escribe */
+    static final long SUPPRESS = -1;
+
+    private static final int PHASES = InvocationPhase.values().length;
+
+    private final Sampling sampling;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Method, MethodSampler> methods = new ConcurrentHashMap<>();
+
+    InvocationSampler(Sampling sampling, LongSupplier clock, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.sampling = sampling;
+        this.intervalNanos = 1_000_000_000L / Math.max(1, sampling.getRate());
+        this.burstNanos = intervalNanos * Math.max(0, sampling.getBurst() - 1);
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /* SUPPRESS, o los eventos de la fase omitidos desde la última línea escrita */
+    long sample(Method method, InvocationPhase phase) {
+        MethodSampler sampler = methods.get(method);
+        if (sampler == null) {
+            sampler = methods.computeIfAbsent(method, this::register);
+        }
+        return sampler.sample(phase);
+    }
+
+    /* Eventos omitidos de un método desde que arrancó la aplicación */
+    long suppressed(Method method) {
+        MethodSampler sampler = methods.get(method);
+        return sampler != null ? sampler.suppressed.sum() : 0;
+    }
+
+    private MethodSampler register(Method method) {
+        MethodSampler sampler = new MethodSampler();
+        meterRegistry.ifAvailable(registry -> FunctionCounter
+                .builder("greeting.aop.events.sampled", sampler.suppressed, LongAdder::sum)
+                .tag("method", MethodLatencyRecorder.signature(method))
+                .description("Eventos de log omitidos por el muestreo").register(registry));
+        return sampler;
+    }
+
+    /* La fase de éxito cuyo contador avanza también con cada fallo, para que sigan alineados */
+    private static InvocationPhase successOf(InvocationPhase failure) {
+        return switch (failure) {
+            case AFTER_THROWING -> InvocationPhase.AFTER_RETURNING;
+            case AROUND_ERROR -> InvocationPhase.AROUND_RETURN;
+            case BATCH_ERROR -> InvocationPhase.BATCH_RETURN;
+            default -> failure;
+        };
+    }
+
+    private final class MethodSampler {
+
+        /* Eventos vistos por fase (ratio) */
+        private final AtomicLongArray sequence = new AtomicLongArray(PHASES);
+        /* Eventos omitidos por fase desde la última línea escrita de esa fase */
+        private final AtomicLongArray pending = new AtomicLongArray(PHASES);
+        /* Instante teórico de la siguiente línea permitida (rate) */
+        private final AtomicLong allowedAt = new AtomicLong(Long.MIN_VALUE);
+
+        private final LongAdder suppressed = new LongAdder();
+
+        long sample(InvocationPhase phase) {
+            int index = phase.ordinal();
+            if (phase.isFailure()) {
+                sequence.getAndIncrement(successOf(phase).ordinal());
+                return pending.getAndSet(index, 0);
+            }
+            boolean keep = switch (sampling.getMode()) {
+                case RATIO -> sequence.getAndIncrement(index) % Math.max(1, sampling.getRatio()) == 0;
+                case RATE -> acquire();
+                default -> true;
+            };
+            if (keep) {
+                return pending.getAndSet(index, 0);
+            }
+            pending.getAndIncrement(index);
+            suppressed.increment();
+            return SUPPRESS;
+        }
+
+        private boolean acquire() {
+            long now = clock.getAsLong();
+            for (;;) {
+                long current = allowedAt.get();
+                long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + intervalNanos;
+                if (next - now > burstNanos + intervalNanos) {
+                    return false;
+                }
+                if (allowedAt.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
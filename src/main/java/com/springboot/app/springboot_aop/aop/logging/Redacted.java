@@ -0,0 +1,18 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un parámetro cuyo valor no debe aparecer en los logs de los aspectos.
+ * {@link ArgumentRenderer} lo sustituye por "****". Tiene el mismo efecto que
+ * añadir el nombre del parámetro a greeting.aop.args.redacted-parameters.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Redacted {
+}
@@ -0,0 +1,64 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cuenta los fallos de cada método interceptado por tipo de excepción
+ * (greeting.aop.errors, etiquetas method y exception).
+ *
+ * Sólo usa la clase de la excepción: nunca pide el stack trace ni el mensaje,
+ * así que contar un fallo no cuesta más que un incremento cuando la excepción
+ * se creó sin stack trace (GreetingServiceException).
+ */
+@Component
+public class MethodErrorCounter {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Key, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public MethodErrorCounter(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(JoinPoint joinPoint, Throwable error) {
+        if (joinPoint.getSignature() instanceof MethodSignature signature) {
+            record(signature.getMethod(), error);
+        }
+    }
+
+    public void record(Method method, Throwable error) {
+        Key key = new Key(method, error.getClass());
+        LongAdder count = errors.get(key);
+        if (count == null) {
+            count = errors.computeIfAbsent(key, this::register);
+        }
+        count.increment();
+    }
+
+    public long count(Method method, Class<? extends Throwable> type) {
+        LongAdder count = errors.get(new Key(method, type));
+        return count != null ? count.sum() : 0;
+    }
+
+    private LongAdder register(Key key) {
+        LongAdder count = new LongAdder();
+        meterRegistry.ifAvailable(registry -> FunctionCounter.builder("greeting.aop.errors", count, LongAdder::sum)
+                .tags("method", MethodLatencyRecorder.signature(key.method), "exception", key.type.getSimpleName())
+                .register(registry));
+        return count;
+    }
+
+    private record Key(Method method, Class<?> type) {
+    }
+}
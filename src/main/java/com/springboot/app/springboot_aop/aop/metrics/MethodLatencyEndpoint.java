@@ -0,0 +1,43 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/greetinglatency
+ *
+ * GET: percentiles de la última ventana por método y resultado.
+ * POST: cierra la ventana actual y devuelve la nueva ventana publicada.
+ * DELETE: descarta todas las latencias registradas.
+ */
+@Component
+@Endpoint(id = "greetinglatency")
+public class MethodLatencyEndpoint {
+
+    private final MethodLatencyRecorder recorder;
+
+    public MethodLatencyEndpoint(MethodLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latencies() {
+        return recorder.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rotate() {
+        recorder.rotate();
+        return recorder.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -0,0 +1,55 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link MethodLatencyRecorder} (prefijo greeting.aop.latency).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.latency")
+public class MethodLatencyProperties {
+
+    private boolean enabled = true;
+
+    /* Cada cuánto se rota la ventana publicada en Micrometer y en el endpoint */
+    private Duration window = Duration.ofMinutes(1);
+
+    /* Histogramas por serie; se redondea a potencia de dos */
+    private int stripes = 8;
+
+    /* Latencias mayores se registran como este valor */
+    private Duration highestTrackable = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public Duration getHighestTrackable() {
+        return highestTrackable;
+    }
+
+    public void setHighestTrackable(Duration highestTrackable) {
+        this.highestTrackable = highestTrackable;
+    }
+}
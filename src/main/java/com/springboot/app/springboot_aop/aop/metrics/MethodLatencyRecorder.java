@@ -0,0 +1,193 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Latencia de cada método de GreetingService interceptado por
+ * GreetingAspect.loggerAround, con una serie para las llamadas que terminan
+ * bien y otra para las que lanzan una excepción.
+ *
+ * Las series son {@link StripedLatencyHistogram}. Cada greeting.aop.latency.window
+ * se cierra una ventana, y sus percentiles (p50, p90, p99, p999) y el máximo se
+ * publican en Micrometer como greeting.aop.latency (etiquetas method, outcome y
+ * quantile) y en el endpoint de actuator greetinglatency, que además permite
+ * rotar o reiniciar las ventanas.
+ */
+@Component
+@EnableConfigurationProperties(MethodLatencyProperties.class)
+public class MethodLatencyRecorder implements SmartLifecycle {
+
+    static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final MethodLatencyProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long highestTrackable;
+    private final Map<Method, MethodLatency> latencies = new ConcurrentHashMap<>();
+
+    private volatile Instant windowStart = Instant.now();
+    private ScheduledExecutorService rotation;
+
+    public MethodLatencyRecorder(MethodLatencyProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.highestTrackable = properties.getHighestTrackable().toNanos();
+    }
+
+    public void recordSuccess(JoinPoint joinPoint, long nanos) {
+        record(joinPoint, nanos, true);
+    }
+
+    public void recordFailure(JoinPoint joinPoint, long nanos) {
+        record(joinPoint, nanos, false);
+    }
+
+    private void record(JoinPoint joinPoint, long nanos, boolean success) {
+        if (properties.isEnabled() && joinPoint.getSignature() instanceof MethodSignature signature) {
+            record(signature.getMethod(), nanos, success);
+        }
+    }
+
+    public void record(Method method, long nanos, boolean success) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        MethodLatency latency = latencies.get(method);
+        if (latency == null) {
+            latency = latencies.computeIfAbsent(method, this::register);
+        }
+        (success ? latency.success : latency.failure).record(nanos);
+    }
+
+    private MethodLatency register(Method method) {
+        String signature = signature(method);
+        MethodLatency latency = new MethodLatency(signature,
+                new StripedLatencyHistogram(properties.getStripes(), highestTrackable),
+                new StripedLatencyHistogram(properties.getStripes(), highestTrackable));
+        meterRegistry.ifAvailable(registry -> {
+            registerMeters(registry, signature, "success", latency.success);
+            registerMeters(registry, signature, "failure", latency.failure);
+        });
+        return latency;
+    }
+
+    private static void registerMeters(MeterRegistry registry, String signature, String outcome,
+            StripedLatencyHistogram series) {
+        for (double quantile : QUANTILES) {
+            TimeGauge.builder("greeting.aop.latency", series, TimeUnit.NANOSECONDS,
+                    s -> s.window().getValueAtPercentile(quantile * 100))
+                    .tags("method", signature, "outcome", outcome, "quantile", String.valueOf(quantile))
+                    .register(registry);
+        }
+        TimeGauge.builder("greeting.aop.latency.max", series, TimeUnit.NANOSECONDS, s -> s.window().getMaxValue())
+                .tags("method", signature, "outcome", outcome).register(registry);
+        Gauge.builder("greeting.aop.latency.count", series, s -> s.window().getTotalCount())
+                .tags("method", signature, "outcome", outcome).register(registry);
+    }
+
+    /* GreetingServiceImpl.sayHello(String,String) */
+    public static String signature(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + Stream.of(method.getParameterTypes()).map(Class::getSimpleName)
+                        .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /* Cierra la ventana actual de todas las series y la publica */
+    public void rotate() {
+        windowStart = Instant.now();
+        for (MethodLatency latency : latencies.values()) {
+            latency.success.rotate();
+            latency.failure.rotate();
+        }
+    }
+
+    public void reset() {
+        windowStart = Instant.now();
+        for (MethodLatency latency : latencies.values()) {
+            latency.success.reset();
+            latency.failure.reset();
+        }
+    }
+
+    /* Última ventana publicada, en milisegundos, por firma de método y resultado */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> methods = new TreeMap<>();
+        for (MethodLatency latency : latencies.values()) {
+            Map<String, Object> outcomes = new LinkedHashMap<>();
+            outcomes.put("success", describe(latency.success.window()));
+            outcomes.put("failure", describe(latency.failure.window()));
+            methods.put(latency.signature, outcomes);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("window", properties.getWindow().toString());
+        snapshot.put("currentWindowStart", windowStart.toString());
+        snapshot.put("methods", methods);
+        return snapshot;
+    }
+
+    private static Map<String, Object> describe(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("p50", millis(histogram.getValueAtPercentile(50)));
+        values.put("p90", millis(histogram.getValueAtPercentile(90)));
+        values.put("p99", millis(histogram.getValueAtPercentile(99)));
+        values.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        values.put("max", millis(histogram.getMaxValue()));
+        return values;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || rotation != null) {
+            return;
+        }
+        rotation = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "greeting-aop-latency");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = properties.getWindow().toMillis();
+        rotation.scheduleAtFixedRate(this::rotate, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (rotation != null) {
+            rotation.shutdownNow();
+            rotation = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return rotation != null;
+    }
+
+    private record MethodLatency(String signature, StripedLatencyHistogram success, StripedLatencyHistogram failure) {
+    }
+}
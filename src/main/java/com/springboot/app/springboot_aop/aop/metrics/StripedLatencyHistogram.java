@@ -0,0 +1,86 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Histograma de latencias (en nanosegundos) repartido en varios
+ * {@link Recorder} de HdrHistogram.
+ *
+ * Cada hilo escribe en el Recorder que le toca por su id, de modo que los hilos
+ * de las peticiones no compiten por las mismas líneas de caché. Registrar un
+ * valor es un incremento atómico sobre un array reservado de antemano: no hay
+ * locks ni asignación de memoria en el camino caliente.
+ *
+ * Los lectores ven la última ventana cerrada por {@link #rotate()}, que suma los
+ * intervalos de todos los Recorder en un Histogram nuevo y lo publica en una
+ * referencia volátil; la ventana publicada no se modifica después.
+ */
+final class StripedLatencyHistogram {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder[] stripes;
+    private final Histogram[] recycled;
+    private final int mask;
+    private final long highestTrackable;
+    private final ReentrantLock rotation = new ReentrantLock();
+
+    private volatile Histogram window;
+
+    StripedLatencyHistogram(int requestedStripes, long highestTrackable) {
+        int count = Integer.highestOneBit(Math.max(1, requestedStripes - 1)) << 1;
+        this.stripes = new Recorder[count];
+        this.recycled = new Histogram[count];
+        this.mask = count - 1;
+        this.highestTrackable = highestTrackable;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Recorder(1, highestTrackable, SIGNIFICANT_DIGITS);
+        }
+        this.window = emptyHistogram();
+    }
+
+    void record(long nanos) {
+        long value = nanos < 1 ? 1 : Math.min(nanos, highestTrackable);
+        stripes[(int) Thread.currentThread().threadId() & mask].recordValue(value);
+    }
+
+    /* Cierra la ventana actual y la publica; devuelve la ventana cerrada */
+    Histogram rotate() {
+        rotation.lock();
+        try {
+            Histogram next = emptyHistogram();
+            for (int i = 0; i < stripes.length; i++) {
+                recycled[i] = stripes[i].getIntervalHistogram(recycled[i]);
+                next.add(recycled[i]);
+            }
+            window = next;
+            return next;
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    /* Descarta lo registrado hasta ahora y la ventana publicada */
+    void reset() {
+        rotation.lock();
+        try {
+            for (Recorder stripe : stripes) {
+                stripe.reset();
+            }
+            window = emptyHistogram();
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    Histogram window() {
+        return window;
+    }
+
+    private Histogram emptyHistogram() {
+        return new Histogram(1, highestTrackable, SIGNIFICANT_DIGITS);
+    }
+}
@@ -0,0 +1,22 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita las llamadas simultáneas a un método ({@link ResilienceAspect}). Las
+ * que superan el límite fallan en el acto con
+ * {@link CallNotPermittedException} en lugar de esperar, para no retener los
+ * hilos de las peticiones cuando el método se vuelve lento.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Bulkhead {
+
+    /* Llamadas en curso como máximo; -1 usa greeting.aop.resilience.bulkhead.max-concurrent */
+    int maxConcurrent() default -1;
+}
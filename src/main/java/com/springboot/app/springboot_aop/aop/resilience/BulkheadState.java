@@ -0,0 +1,47 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Llamadas en curso de un método @Bulkhead: un contador atómico que se
+ * incrementa con compareAndSet sólo si no se ha llegado al límite, sin locks
+ * ni colas de espera.
+ */
+final class BulkheadState {
+
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    final LongAdder rejected = new LongAdder();
+
+    BulkheadState(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /* false si ya hay maxConcurrent llamadas en curso; si no, hay que llamar a release() al terminar */
+    boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+}
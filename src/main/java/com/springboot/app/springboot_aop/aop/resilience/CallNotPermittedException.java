@@ -0,0 +1,33 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+/**
+ * Llamada rechazada por {@link ResilienceAspect} sin ejecutar el método.
+ * GreetingErrorAdvice la convierte en un 503.
+ *
+ * Hay una instancia por método y motivo, creada una vez y sin stack trace: un
+ * rechazo debe costar menos que la llamada que evita, y es inmutable, así que
+ * se comparte entre hilos.
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    public enum Reason {
+        /* @Bulkhead: demasiadas llamadas en curso */
+        BULKHEAD_FULL,
+        /* @CircuitBreaker: circuito abierto o sin llamadas de prueba libres */
+        CIRCUIT_OPEN
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+
+    CallNotPermittedException(String method, Reason reason) {
+        super(method + (reason == Reason.BULKHEAD_FULL ? ": demasiadas llamadas en curso" : ": circuito abierto"),
+                null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
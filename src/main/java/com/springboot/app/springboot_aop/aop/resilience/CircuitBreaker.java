@@ -0,0 +1,28 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Corta las llamadas a un método cuando falla demasiado
+ * ({@link ResilienceAspect}): con el circuito abierto fallan en el acto con
+ * {@link CallNotPermittedException}, sin ejecutar el método ni los advice de
+ * log. Los valores por defecto están en greeting.aop.resilience.circuit-breaker.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CircuitBreaker {
+
+    /* Porcentaje de fallos de la ventana que abre el circuito (más de 100, nunca); -1 usa la configuración */
+    int failureRateThreshold() default -1;
+
+    /* Llamadas de cada ventana; -1 usa la configuración */
+    int windowSize() default -1;
+
+    /* Tiempo abierto antes de dejar pasar llamadas de prueba (por ejemplo "30s"); vacío usa la configuración */
+    String openDuration() default "";
+}
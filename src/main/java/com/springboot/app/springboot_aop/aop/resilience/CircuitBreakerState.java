@@ -0,0 +1,257 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Estado del circuito de un método @CircuitBreaker, en dos atómicos y sin
+ * locks:
+ *
+ * - state: los dos bits altos son el estado (CLOSED, OPEN, HALF_OPEN), los seis
+ * siguientes la época y el resto el instante de apertura (OPEN) o las llamadas
+ * de prueba que quedan (HALF_OPEN). Un cambio de estado es un único
+ * compareAndSet que además avanza la época, así que sólo una llamada pasa de
+ * OPEN a HALF_OPEN o de HALF_OPEN a CLOSED.
+ * - window: llamadas (32 bits altos) y fallos (32 bits bajos) de la ventana
+ * actual, sumados con un compareAndSet por llamada. La ventana es de
+ * windowSize llamadas consecutivas: la llamada que llega con la ventana llena
+ * es la primera de la siguiente. El circuito se abre en cuanto los fallos
+ * alcanzan failureRateThreshold % de la ventana, sin esperar a que se llene;
+ * con un failureRateThreshold por encima de 100 no se abre nunca.
+ * Con el circuito medio abierto cuenta los éxitos de las llamadas de prueba.
+ *
+ * Con el circuito medio abierto sólo pasan halfOpenCalls llamadas: un fallo lo
+ * vuelve a abrir y halfOpenCalls éxitos lo cierran. Si las llamadas de prueba no
+ * terminan en openNanos se dan por perdidas y empieza otra ronda, para que una
+ * llamada colgada no deje el circuito sin huecos para siempre. release()
+ * devuelve el hueco de una llamada de prueba que no llegó a ejecutarse.
+ *
+ * tryAcquire() devuelve como permiso la época en la que entró la llamada y
+ * onResult() descarta el resultado si el circuito ha cambiado de estado desde
+ * entonces: una llamada lenta que empezó con el circuito cerrado y termina ya
+ * medio abierto no cuenta como llamada de prueba, ni su fallo lo vuelve a abrir.
+ * La época da la vuelta cada 64 cambios de estado; una llamada que dure tanto
+ * podría contarse en el estado equivocado.
+ */
+final class CircuitBreakerState {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /* Permiso de tryAcquire() cuando la llamada no puede pasar */
+    static final long REJECTED = -1;
+
+    private static final int STATE_SHIFT = 62;
+    private static final long STATUS_MASK = ~((1L << STATE_SHIFT) - 1);
+    private static final int EPOCH_SHIFT = 56;
+    private static final long EPOCH_MASK = (1L << (STATE_SHIFT - EPOCH_SHIFT)) - 1;
+    private static final long VALUE_MASK = (1L << EPOCH_SHIFT) - 1;
+    private static final long CLOSED = 0;
+    private static final long OPEN = 1L << STATE_SHIFT;
+    private static final long HALF_OPEN = 2L << STATE_SHIFT;
+
+    private static final long CALL = 1L << 32;
+    private static final long FAILURES_MASK = CALL - 1;
+
+    private final long failureThreshold;
+    private final int windowSize;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    /* Los instantes se guardan relativos a origin, módulo 2^56 (unos dos años) */
+    private final long origin;
+
+    private final AtomicLong state = new AtomicLong(CLOSED);
+    private final AtomicLong window = new AtomicLong();
+    /* Instante en que empezó la ronda actual de llamadas de prueba */
+    private volatile long halfOpenSince;
+
+    final LongAdder rejected = new LongAdder();
+    final LongAdder opened = new LongAdder();
+
+    CircuitBreakerState(int failureRateThreshold, int windowSize, long openNanos, int halfOpenCalls,
+            LongSupplier clock) {
+        this.windowSize = Math.max(1, windowSize);
+        /* Fallos de una ventana que abren el circuito, redondeando hacia arriba; por encima de 100 %, ninguno */
+        this.failureThreshold = failureRateThreshold > 100 ? Long.MAX_VALUE
+                : Math.max(1, (failureRateThreshold * (long) this.windowSize + 99) / 100);
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.origin = clock.getAsLong() - 1;
+    }
+
+    /*
+     * REJECTED si la llamada no puede pasar; si pasa, devuelve el permiso que hay
+     * que pasar a onResult() al terminar
+     */
+    long tryAcquire() {
+        for (;;) {
+            long current = state.get();
+            long status = current & STATUS_MASK;
+            if (status == CLOSED) {
+                return epoch(current);
+            }
+            if (status == OPEN) {
+                if (elapsed(current) < openNanos) {
+                    rejected.increment();
+                    return REJECTED;
+                }
+                /* Pasado openNanos, esta llamada es la primera de prueba */
+                long permit = startTrials(current);
+                if (permit != REJECTED) {
+                    return permit;
+                }
+                continue;
+            }
+            if ((current & VALUE_MASK) == 0) {
+                if (((now() - halfOpenSince) & VALUE_MASK) < openNanos) {
+                    rejected.increment();
+                    return REJECTED;
+                }
+                /* Las llamadas de prueba no han terminado en openNanos: se dan por perdidas */
+                long permit = startTrials(current);
+                if (permit != REJECTED) {
+                    return permit;
+                }
+                continue;
+            }
+            if (state.compareAndSet(current, current - 1)) {
+                return epoch(current);
+            }
+        }
+    }
+
+    void onResult(long permit, boolean failed) {
+        long current = state.get();
+        if (epoch(current) != permit) {
+            /* Empezó en otro estado del circuito: no cuenta */
+            return;
+        }
+        long status = current & STATUS_MASK;
+        if (status == CLOSED) {
+            long call = failed ? CALL + 1 : CALL;
+            long counts;
+            long next;
+            do {
+                counts = window.get();
+                /* Con la ventana llena, esta llamada empieza la siguiente */
+                next = counts >>> 32 >= windowSize ? call : counts + call;
+            } while (!window.compareAndSet(counts, next));
+            if ((next & FAILURES_MASK) >= failureThreshold) {
+                open(permit);
+            }
+        } else if (status == HALF_OPEN) {
+            if (failed) {
+                open(permit);
+            } else if (window.addAndGet(CALL) >>> 32 >= halfOpenCalls) {
+                transition(permit, CLOSED);
+            }
+        }
+    }
+
+    /*
+     * Devuelve el permiso de una llamada que no llegó a ejecutarse (la rechazó
+     * otro @Bulkhead o @CircuitBreaker anidado): no cuenta, y si era de prueba
+     * deja su hueco a otra
+     */
+    void release(long permit) {
+        for (;;) {
+            long current = state.get();
+            if (epoch(current) != permit || (current & STATUS_MASK) != HALF_OPEN
+                    || (current & VALUE_MASK) >= halfOpenCalls) {
+                return;
+            }
+            if (state.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /* Empieza una ronda de llamadas de prueba; REJECTED si otra llamada se adelantó */
+    private long startTrials(long current) {
+        long next = HALF_OPEN | nextEpoch(current) | (halfOpenCalls - 1);
+        /* Antes del compareAndSet, para que quien vea la ronda nueva vea también su inicio */
+        halfOpenSince = now();
+        if (!state.compareAndSet(current, next)) {
+            return REJECTED;
+        }
+        window.set(0);
+        return epoch(next);
+    }
+
+    private void open(long permit) {
+        if (transition(permit, OPEN | now())) {
+            opened.increment();
+        }
+    }
+
+    /* Pasa a next si el circuito sigue en la época permit; sólo una llamada lo consigue */
+    private boolean transition(long permit, long next) {
+        for (;;) {
+            long current = state.get();
+            if (epoch(current) != permit) {
+                return false;
+            }
+            if (state.compareAndSet(current, next | nextEpoch(current))) {
+                window.set(0);
+                return true;
+            }
+        }
+    }
+
+    void reset() {
+        /* Las llamadas en curso ya no cuentan */
+        state.getAndUpdate(current -> CLOSED | nextEpoch(current));
+        window.set(0);
+    }
+
+    State state() {
+        return State.values()[(int) (state.get() >>> STATE_SHIFT)];
+    }
+
+    /* Llamadas y fallos de la ventana actual */
+    long windowCalls() {
+        return window.get() >>> 32;
+    }
+
+    long windowFailures() {
+        return window.get() & FAILURES_MASK;
+    }
+
+    /* Nanosegundos hasta dejar pasar llamadas de prueba, 0 si no está abierto */
+    long remainingOpenNanos() {
+        long current = state.get();
+        if ((current & STATUS_MASK) != OPEN) {
+            return 0;
+        }
+        return Math.max(0, openNanos - elapsed(current));
+    }
+
+    int windowSize() {
+        return windowSize;
+    }
+
+    long failureThreshold() {
+        return failureThreshold;
+    }
+
+    private long now() {
+        return (clock.getAsLong() - origin) & VALUE_MASK;
+    }
+
+    /* Nanosegundos desde el instante guardado en current */
+    private long elapsed(long current) {
+        return (now() - (current & VALUE_MASK)) & VALUE_MASK;
+    }
+
+    private static long epoch(long current) {
+        return (current >>> EPOCH_SHIFT) & EPOCH_MASK;
+    }
+
+    private static long nextEpoch(long current) {
+        return ((epoch(current) + 1) & EPOCH_MASK) << EPOCH_SHIFT;
+    }
+}
@@ -0,0 +1,210 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.resilience.CallNotPermittedException.Reason;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Aplica {@link Bulkhead} y {@link CircuitBreaker}: primero se reserva un hueco
+ * de llamada en curso y después se consulta el circuito. Una llamada rechazada
+ * lanza {@link CallNotPermittedException} sin ejecutar el método.
+ *
+ * Con @Order(-10) queda dentro de MemoizingAspect (-30) y SingleFlightAspect
+ * (-20) y fuera de GreetingFooAspect (1) y GreetingAspect (2): los aciertos de
+ * caché y las llamadas agrupadas no ocupan huecos, y con el circuito abierto
+ * tampoco se ejecutan los advice de log, así que un rechazo sólo cuesta un par
+ * de lecturas atómicas.
+ *
+ * Cuenta como fallo cualquier excepción del método. Una llamada que rechaza otro
+ * @Bulkhead o @CircuitBreaker anidado no cuenta ni como fallo ni como éxito, y
+ * si era de prueba devuelve su hueco al circuito medio abierto. El estado es por método
+ * (/actuator/greetingresilience) y se publica en greeting.aop.bulkhead.inflight,
+ * greeting.aop.circuitbreaker.state (0 cerrado, 1 abierto, 2 medio abierto) y
+ * greeting.aop.resilience.rejected (reason=bulkhead_full|circuit_open).
+ */
+@Order(-10)
+@Aspect
+@Component
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceAspect {
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Method, MethodGuard> guards = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.springboot.app.springboot_aop.aop.resilience.Bulkhead)"
+            + " || @annotation(com.springboot.app.springboot_aop.aop.resilience.CircuitBreaker)")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodGuard guard = guards.get(method);
+        if (guard == null) {
+            guard = guards.computeIfAbsent(method, this::register);
+        }
+        return guard.execute(joinPoint);
+    }
+
+    /* Estado de cada método protegido para el endpoint */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> methods = new LinkedHashMap<>();
+        guards.forEach((method, guard) -> methods.put(MethodLatencyRecorder.signature(method), guard.describe()));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", properties.isEnabled());
+        snapshot.put("methods", methods);
+        return snapshot;
+    }
+
+    /* Cierra todos los circuitos; los contadores de rechazos se conservan */
+    public void reset() {
+        guards.values().forEach(guard -> {
+            if (guard.breaker != null) {
+                guard.breaker.reset();
+            }
+        });
+    }
+
+    private MethodGuard register(Method method) {
+        String signature = MethodLatencyRecorder.signature(method);
+        Bulkhead bulkhead = AnnotationUtils.findAnnotation(method, Bulkhead.class);
+        CircuitBreaker circuitBreaker = AnnotationUtils.findAnnotation(method, CircuitBreaker.class);
+        MethodGuard guard = new MethodGuard(signature, bulkhead != null ? bulkhead(bulkhead) : null,
+                circuitBreaker != null ? circuitBreaker(circuitBreaker) : null);
+
+        meterRegistry.ifAvailable(registry -> {
+            if (guard.bulkhead != null) {
+                Gauge.builder("greeting.aop.bulkhead.inflight", guard.bulkhead, BulkheadState::inFlight)
+                        .tag("method", signature).register(registry);
+                rejected(signature, "bulkhead_full", guard.bulkhead.rejected).register(registry);
+            }
+            if (guard.breaker != null) {
+                Gauge.builder("greeting.aop.circuitbreaker.state", guard.breaker, breaker -> breaker.state().ordinal())
+                        .tag("method", signature).register(registry);
+                rejected(signature, "circuit_open", guard.breaker.rejected).register(registry);
+            }
+        });
+        return guard;
+    }
+
+    private BulkheadState bulkhead(Bulkhead annotation) {
+        int maxConcurrent = annotation.maxConcurrent() >= 0 ? annotation.maxConcurrent()
+                : properties.getBulkhead().getMaxConcurrent();
+        return new BulkheadState(maxConcurrent);
+    }
+
+    private CircuitBreakerState circuitBreaker(CircuitBreaker annotation) {
+        ResilienceProperties.CircuitBreakerConfig defaults = properties.getCircuitBreaker();
+        int threshold = annotation.failureRateThreshold() >= 0 ? annotation.failureRateThreshold()
+                : defaults.getFailureRateThreshold();
+        int windowSize = annotation.windowSize() > 0 ? annotation.windowSize() : defaults.getWindowSize();
+        Duration openDuration = annotation.openDuration().isEmpty() ? defaults.getOpenDuration()
+                : DurationStyle.detectAndParse(annotation.openDuration());
+        return new CircuitBreakerState(threshold, windowSize, openDuration.toNanos(), defaults.getHalfOpenCalls(),
+                System::nanoTime);
+    }
+
+    private static FunctionCounter.Builder<LongAdder> rejected(String signature, String reason, LongAdder count) {
+        return FunctionCounter.builder("greeting.aop.resilience.rejected", count, LongAdder::sum)
+                .tags("method", signature, "reason", reason);
+    }
+
+    /* @Bulkhead y @CircuitBreaker de un método; cualquiera de los dos puede faltar */
+    private static final class MethodGuard {
+
+        private final BulkheadState bulkhead;
+        private final CircuitBreakerState breaker;
+        private final CallNotPermittedException bulkheadFull;
+        private final CallNotPermittedException circuitOpen;
+
+        MethodGuard(String signature, BulkheadState bulkhead, CircuitBreakerState breaker) {
+            this.bulkhead = bulkhead;
+            this.breaker = breaker;
+            this.bulkheadFull = new CallNotPermittedException(signature, Reason.BULKHEAD_FULL);
+            this.circuitOpen = new CallNotPermittedException(signature, Reason.CIRCUIT_OPEN);
+        }
+
+        Object execute(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                throw bulkheadFull;
+            }
+            try {
+                if (breaker == null) {
+                    return joinPoint.proceed();
+                }
+                long permit = breaker.tryAcquire();
+                if (permit == CircuitBreakerState.REJECTED) {
+                    throw circuitOpen;
+                }
+                Object result;
+                try {
+                    result = joinPoint.proceed();
+                } catch (CallNotPermittedException e) {
+                    /* El método no llegó a ejecutarse */
+                    breaker.release(permit);
+                    throw e;
+                } catch (Throwable e) {
+                    breaker.onResult(permit, true);
+                    throw e;
+                }
+                breaker.onResult(permit, false);
+                return result;
+            } finally {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            if (bulkhead != null) {
+                Map<String, Object> state = new LinkedHashMap<>();
+                state.put("maxConcurrent", bulkhead.maxConcurrent());
+                state.put("inFlight", bulkhead.inFlight());
+                state.put("rejected", bulkhead.rejected.sum());
+                values.put("bulkhead", state);
+            }
+            if (breaker != null) {
+                Map<String, Object> state = new LinkedHashMap<>();
+                state.put("state", breaker.state().name());
+                state.put("windowSize", breaker.windowSize());
+                state.put("failureThreshold", breaker.failureThreshold());
+                state.put("windowCalls", breaker.windowCalls());
+                state.put("windowFailures", breaker.windowFailures());
+                state.put("remainingOpenMillis", TimeUnit.NANOSECONDS.toMillis(breaker.remainingOpenNanos()));
+                state.put("opened", breaker.opened.sum());
+                state.put("rejected", breaker.rejected.sum());
+                values.put("circuitBreaker", state);
+            }
+            return values;
+        }
+    }
+}
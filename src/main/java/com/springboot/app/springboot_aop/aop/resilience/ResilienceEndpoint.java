@@ -0,0 +1,37 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/greetingresilience
+ *
+ * GET: por cada método @Bulkhead/@CircuitBreaker ya llamado, las llamadas en
+ * curso, el estado del circuito, la ventana actual y los rechazos.
+ * DELETE: cierra todos los circuitos.
+ */
+@Component
+@Endpoint(id = "greetingresilience")
+public class ResilienceEndpoint {
+
+    private final ResilienceAspect resilienceAspect;
+
+    public ResilienceEndpoint(ResilienceAspect resilienceAspect) {
+        this.resilienceAspect = resilienceAspect;
+    }
+
+    @ReadOperation
+    public Map<String, Object> resilience() {
+        return resilienceAspect.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> reset() {
+        resilienceAspect.reset();
+        return resilienceAspect.snapshot();
+    }
+}
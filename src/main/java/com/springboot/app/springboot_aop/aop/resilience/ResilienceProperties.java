@@ -0,0 +1,95 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link ResilienceAspect} (prefijo greeting.aop.resilience).
+ * Los valores de las anotaciones tienen prioridad sobre estos.
+ */
+@ConfigurationProperties(prefix = "greeting.aop.resilience")
+public class ResilienceProperties {
+
+    /* Desactivado por defecto: @Bulkhead y @CircuitBreaker no hacen nada */
+    private boolean enabled;
+
+    private final BulkheadConfig bulkhead = new BulkheadConfig();
+
+    private final CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public BulkheadConfig getBulkhead() {
+        return bulkhead;
+    }
+
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static class BulkheadConfig {
+
+        /* Por debajo de los 200 hilos de Tomcat, para que siempre queden hilos para otras peticiones */
+        private int maxConcurrent = 100;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    public static class CircuitBreakerConfig {
+
+        /* Porcentaje de fallos de la ventana que abre el circuito; por encima de 100 no se abre nunca */
+        private int failureRateThreshold = 50;
+
+        private int windowSize = 20;
+
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /* Llamadas de prueba con el circuito medio abierto; si todas van bien se cierra */
+        private int halfOpenCalls = 3;
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.springboot.app.springboot_aop.aop.support;
+
+import java.util.Arrays;
+
+/**
+ * Tupla de argumentos de una llamada usada como clave de mapa, con el hash
+ * calculado una sola vez. Compara el contenido de los arrays, no su identidad;
+ * el array no se copia, así que no debe modificarse después.
+ */
+public final class ArgumentsKey {
+
+    private final Object[] args;
+    private final int hash;
+
+    public ArgumentsKey(Object[] args) {
+        this.args = args;
+        this.hash = Arrays.deepHashCode(args);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || other instanceof ArgumentsKey key && hash == key.hash && Arrays.deepEquals(args, key.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
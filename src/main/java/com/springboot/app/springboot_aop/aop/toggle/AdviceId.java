@@ -0,0 +1,86 @@
+package com.springboot.app.springboot_aop.aop.toggle;
+
+/**
+ * Los advice de GreetingFooAspect y GreetingAspect que se pueden activar y
+ * desactivar en ejecución con {@link AdviceToggles}. Cada uno ocupa un bit del
+ * estado de AdviceToggles, por eso no puede haber más de 63.
+ *
+ * GreetingFusedAspect no tiene advice propios: cada línea que escribe
+ * corresponde a uno de estos y respeta su estado.
+ */
+public enum AdviceId {
+
+    FOO_BEFORE("GreetingFooAspect", "loggerBefore", "greetingFooLoggerPointCut"),
+    FOO_AFTER("GreetingFooAspect", "loggerAfter", "greetingFooLoggerPointCut"),
+    FOO_BATCH_BEFORE("GreetingFooAspect", "loggerBatchBefore", "greetingBatchPointCut"),
+    FOO_BATCH_AFTER("GreetingFooAspect", "loggerBatchAfter", "greetingBatchPointCut"),
+    AFTER_THROWING("GreetingAspect", "loggerAfterThrowing", "greetingLoggerPointCut"),
+    AFTER_RETURNING("GreetingAspect", "loggerAfterReturning", "greetingLoggerPointCut"),
+    AFTER("GreetingAspect", "loggerAfter", "greetingLoggerPointCut"),
+    AROUND("GreetingAspect", "loggerAround", "greetingLoggerPointCut"),
+    BEFORE("GreetingAspect", "loggerBefore", "greetingLoggerPointCut"),
+    BATCH_AROUND("GreetingAspect", "loggerBatchAround", "greetingBatchPointCut"),
+    REACTIVE_AROUND("GreetingAspect", "loggerReactiveAround", "greetingReactivePointCut");
+
+    /* Todos los bits de advice */
+    public static final long ALL = (1L << values().length) - 1;
+
+    private final String aspect;
+    private final String method;
+    private final String pointcut;
+
+    AdviceId(String aspect, String method, String pointcut) {
+        this.aspect = aspect;
+        this.method = method;
+        this.pointcut = pointcut;
+    }
+
+    /* GreetingAspect.loggerBefore */
+    public String id() {
+        return aspect + "." + method;
+    }
+
+    public String aspect() {
+        return aspect;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    /* Pointcut de GreetingServicePointcuts al que está ligado */
+    public String pointcut() {
+        return pointcut;
+    }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /* true si el bit de este advice está en mask */
+    public boolean in(long mask) {
+        return (mask & mask()) != 0;
+    }
+
+    /*
+     * Bits de los advice que coinciden con el selector: un advice
+     * (GreetingAspect.loggerBefore), un aspecto (GreetingAspect), un pointcut
+     * (greetingLoggerPointCut) o * para todos
+     */
+    public static long select(String selector) {
+        if (selector == null || selector.isBlank() || selector.equals("*")) {
+            return ALL;
+        }
+        String name = selector.strip();
+        long mask = 0;
+        for (AdviceId advice : values()) {
+            if (advice.id().equals(name) || advice.aspect.equals(name) || advice.pointcut.equals(name)) {
+                mask |= advice.mask();
+            }
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("No hay ningun advice, aspecto o pointcut llamado " + name);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,52 @@
+package com.springboot.app.springboot_aop.aop.toggle;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/greetingadvice
+ *
+ * GET: estado de cada advice y reglas por método.
+ * POST {"advice": "...", "method": "...", "enabled": false}: advice es un id
+ * (GreetingAspect.loggerBefore), un aspecto, un pointcut o se omite para
+ * todos; method es opcional (GreetingServiceImpl.sayHello).
+ * DELETE: vuelve a greeting.aop.advice.disabled.
+ */
+@Component
+@Endpoint(id = "greetingadvice")
+public class AdviceToggleEndpoint {
+
+    private final AdviceToggles toggles;
+
+    public AdviceToggleEndpoint(AdviceToggles toggles) {
+        this.toggles = toggles;
+    }
+
+    @ReadOperation
+    public Map<String, Object> advice() {
+        return toggles.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> toggle(@Nullable String advice, @Nullable String method, boolean enabled) {
+        try {
+            toggles.set(advice, method, enabled);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return toggles.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> reset() {
+        toggles.reset();
+        return toggles.snapshot();
+    }
+}
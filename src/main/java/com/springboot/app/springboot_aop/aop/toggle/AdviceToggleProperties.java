@@ -0,0 +1,27 @@
+package com.springboot.app.springboot_aop.aop.toggle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link AdviceToggles} (prefijo greeting.aop.advice).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.advice")
+public class AdviceToggleProperties {
+
+    /*
+     * Advice desactivados al arrancar y al reiniciar desde el endpoint: ids
+     * (GreetingAspect.loggerBefore), aspectos o pointcuts, ver AdviceId.select
+     */
+    private List<String> disabled = new ArrayList<>();
+
+    public List<String> getDisabled() {
+        return disabled;
+    }
+
+    public void setDisabled(List<String> disabled) {
+        this.disabled = disabled;
+    }
+}
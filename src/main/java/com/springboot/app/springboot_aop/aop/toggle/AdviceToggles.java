@@ -0,0 +1,202 @@
+package com.springboot.app.springboot_aop.aop.toggle;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+/**
+ * Activa y desactiva en ejecución los advice de GreetingFooAspect y
+ * GreetingAspect ({@link AdviceId}), para todos los métodos o sólo para uno,
+ * sin reiniciar la aplicación (/actuator/greetingadvice).
+ *
+ * Spring no permite quitar un advice de un proxy ya creado y con ajc está
+ * tejido en el bytecode, así que el advice se sigue llamando y lo primero que
+ * hace es preguntar aquí. Todo el estado se resume en un único long volátil:
+ * 0 cuando no hay nada desactivado, que es el caso normal, y entonces la
+ * consulta es una lectura y una comparación con cero. Sólo si hay algo
+ * desactivado se miran los bits de cada advice y, si hay reglas por método,
+ * la máscara calculada para ese método.
+ *
+ * Los cambios son poco frecuentes: se serializan con synchronized y publican
+ * estructuras nuevas en lugar de modificar las que leen los advice.
+ */
+@Component
+@EnableConfigurationProperties(AdviceToggleProperties.class)
+public class AdviceToggles {
+
+    /* Bit de state que indica que hay reglas por método */
+    private static final long METHOD_RULES = 1L << 63;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final AdviceToggleProperties properties;
+
+    /* Advice desactivados para todos los métodos, más METHOD_RULES; 0 = todo activo */
+    private volatile long state;
+
+    /* Sólo se modifican dentro de los métodos synchronized */
+    private long globalDisabled;
+    private volatile MethodRules methodRules = new MethodRules(Map.of(), 0);
+
+    public AdviceToggles(AdviceToggleProperties properties) {
+        this.properties = properties;
+        reset();
+    }
+
+    /* El camino rápido: true salvo que el advice esté desactivado para este método */
+    public boolean isEnabled(AdviceId advice, JoinPoint joinPoint) {
+        long current = state;
+        return current == 0 || !advice.in(disabled(current, joinPoint));
+    }
+
+    /* Bits de los advice desactivados para el método; 0 casi siempre */
+    public long disabled(Method method) {
+        long current = state;
+        return current == 0 ? 0 : disabled(current, method);
+    }
+
+    private long disabled(long current, JoinPoint joinPoint) {
+        if ((current & METHOD_RULES) == 0) {
+            return current;
+        }
+        return disabled(current, ((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
+    private long disabled(long current, Method method) {
+        if ((current & METHOD_RULES) == 0) {
+            return current;
+        }
+        return methodRules.disabled(method);
+    }
+
+    /*
+     * Activa o desactiva los advice del selector (ver AdviceId.select). Sin
+     * método el cambio es para todos y sustituye a las reglas por método de esos
+     * advice; con método ("GreetingServiceImpl.sayHello" o la firma completa,
+     * "GreetingServiceImpl.sayHello(String,String)") sólo se aplica a ese método,
+     * también para activar un advice desactivado en el resto.
+     */
+    public synchronized void set(String advice, String method, boolean enabled) {
+        long mask = AdviceId.select(advice);
+        Map<String, Rule> rules = new HashMap<>(methodRules.rules);
+        if (method == null || method.isBlank()) {
+            globalDisabled = enabled ? globalDisabled & ~mask : globalDisabled | mask;
+            rules.replaceAll((target, rule) -> rule.without(mask));
+        } else {
+            String target = method.strip();
+            if (target.indexOf('.') < 1) {
+                throw new IllegalArgumentException("El metodo debe ser Clase.metodo o su firma completa: " + method);
+            }
+            rules.merge(target, Rule.NONE.with(mask, enabled), (current, ignored) -> current.with(mask, enabled));
+        }
+        rules.values().removeIf(Rule::isEmpty);
+        publish(rules);
+        logger.info("Advice {} {}{}", advice == null ? "*" : advice, enabled ? "activado" : "desactivado",
+                method == null || method.isBlank() ? "" : " en " + method);
+    }
+
+    /* Vuelve a greeting.aop.advice.disabled */
+    public synchronized void reset() {
+        long disabled = 0;
+        for (String selector : properties.getDisabled()) {
+            disabled |= AdviceId.select(selector);
+        }
+        globalDisabled = disabled;
+        publish(Map.of());
+    }
+
+    private void publish(Map<String, Rule> rules) {
+        methodRules = new MethodRules(Map.copyOf(rules), globalDisabled);
+        state = globalDisabled | (rules.isEmpty() ? 0 : METHOD_RULES);
+    }
+
+    /* Estado para /actuator/greetingadvice */
+    public Map<String, Object> snapshot() {
+        MethodRules current = methodRules;
+        Map<String, Object> advice = new LinkedHashMap<>();
+        for (AdviceId id : AdviceId.values()) {
+            advice.put(id.id(), Map.of("pointcut", id.pointcut(), "enabled", !id.in(current.global)));
+        }
+        Map<String, Object> methods = new LinkedHashMap<>();
+        current.rules.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> methods.put(entry.getKey(), Map.of(
+                        "enabled", ids(entry.getValue().enabled),
+                        "disabled", ids(entry.getValue().disabled))));
+        return Map.of("advice", advice, "methods", methods);
+    }
+
+    private static List<String> ids(long mask) {
+        return Arrays.stream(AdviceId.values()).filter(id -> id.in(mask)).map(AdviceId::id).toList();
+    }
+
+    /* Advice activados y desactivados en un método, por encima del estado global */
+    private record Rule(long enabled, long disabled) {
+
+        static final Rule NONE = new Rule(0, 0);
+
+        Rule with(long mask, boolean enable) {
+            return enable ? new Rule(enabled | mask, disabled & ~mask) : new Rule(enabled & ~mask, disabled | mask);
+        }
+
+        Rule without(long mask) {
+            return new Rule(enabled & ~mask, disabled & ~mask);
+        }
+
+        boolean isEmpty() {
+            return enabled == 0 && disabled == 0;
+        }
+
+        long apply(long global) {
+            return (global | disabled) & ~enabled;
+        }
+    }
+
+    /* Reglas por método y la máscara ya calculada de cada Method visto */
+    private static final class MethodRules {
+
+        private final Map<String, Rule> rules;
+        private final long global;
+        private final Map<Method, Long> masks = new ConcurrentHashMap<>();
+
+        MethodRules(Map<String, Rule> rules, long global) {
+            this.rules = rules;
+            this.global = global;
+        }
+
+        long disabled(Method method) {
+            Long mask = masks.get(method);
+            if (mask == null) {
+                mask = masks.computeIfAbsent(method, this::compute);
+            }
+            return mask;
+        }
+
+        /* La regla de la firma completa manda sobre la de Clase.metodo */
+        private long compute(Method method) {
+            long mask = global;
+            String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            Rule byName = rules.get(name);
+            if (byName != null) {
+                mask = byName.apply(mask);
+            }
+            Rule bySignature = rules.get(MethodLatencyRecorder.signature(method));
+            if (bySignature != null) {
+                mask = bySignature.apply(mask);
+            }
+            return mask;
+        }
+    }
+}
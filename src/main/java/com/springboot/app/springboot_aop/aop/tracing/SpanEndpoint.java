@@ -0,0 +1,39 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/greetingspans
+ *
+ * GET (?limit=20): las trazas más recientes, con sus spans y el tiempo propio
+ * de cada tipo (request: controlador, advice: GreetingAspect, body: servicio).
+ * DELETE: descarta los spans guardados.
+ */
+@Component
+@Endpoint(id = "greetingspans")
+public class SpanEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SpanRecorder spanRecorder;
+
+    public SpanEndpoint(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> spans(@Nullable Integer limit) {
+        return spanRecorder.snapshot(limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        spanRecorder.clear();
+    }
+}
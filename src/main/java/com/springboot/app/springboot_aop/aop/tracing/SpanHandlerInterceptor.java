@@ -0,0 +1,63 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Span REQUEST de cada petición a un controlador: es el padre de los spans de
+ * los aspectos que se abran mientras tanto en el mismo hilo. Su tiempo propio
+ * es el del controlador, los aspectos exteriores a GreetingAspect y el proxy.
+ */
+@Component
+public class SpanHandlerInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final String SPAN = SpanHandlerInterceptor.class.getName() + ".span";
+
+    private final SpanRecorder spanRecorder;
+
+    public SpanHandlerInterceptor(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        /* El Method del controlador: una referencia que ya existe, no un texto nuevo */
+        Object name = handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod() : handler;
+        int span = spanRecorder.open(SpanKind.REQUEST, name);
+        if (span != SpanRecorder.NO_SPAN) {
+            request.setAttribute(SPAN, span);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        close(request, ex != null || response.getStatus() >= 500);
+    }
+
+    /* La respuesta sigue en otro hilo: el span de este hilo termina aquí */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        close(request, false);
+    }
+
+    private void close(HttpServletRequest request, boolean error) {
+        if (request.getAttribute(SPAN) instanceof Integer span) {
+            request.removeAttribute(SPAN);
+            spanRecorder.close(span, error);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+/**
+ * Qué parte de una petición mide un span.
+ */
+public enum SpanKind {
+
+    /* Petición HTTP completa, desde que DispatcherServlet elige el controlador (SpanHandlerInterceptor) */
+    REQUEST,
+
+    /* Advice @Around de GreetingAspect (o de GreetingFusedAspect) */
+    ADVICE,
+
+    /* joinPoint.proceed() dentro del advice: el método del servicio y los advice más internos */
+    BODY
+}
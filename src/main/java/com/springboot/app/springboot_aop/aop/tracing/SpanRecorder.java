@@ -0,0 +1,318 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+
+/**
+ * Spans de cada petición guardados en memoria, sin colector externo
+ * (/actuator/greetingspans).
+ *
+ * Los spans abiertos están en una pila por hilo: el padre de un span es el que
+ * estaba en la cima al abrirlo, así que la petición (SpanHandlerInterceptor),
+ * el advice @Around y proceed() quedan anidados igual que se ejecutan, pongan
+ * los aspectos el @Order que pongan. Al cerrarse, el span se copia en un buffer
+ * circular de huecos reservados al arrancar; cuando se llena se sobrescriben
+ * los más antiguos.
+ *
+ * Abrir y cerrar un span no crea objetos: el nombre es una referencia al Method
+ * (o a un objeto que ya existía) y sólo se convierte en texto al volcarlo. Cada
+ * hueco tiene un número de versión que el lector comprueba antes y después de
+ * copiarlo (seqlock), así que el escritor nunca espera. Cuando el cursor da la
+ * vuelta, dos escritores pueden caer en el mismo hueco: cada uno lo reserva con
+ * un compareAndSet de la versión y, si otro lo está escribiendo o ya guardó un
+ * span más reciente, descarta el suyo (dropped()).
+ *
+ * Las peticiones asíncronas (/greetings) terminan su span al liberar el hilo
+ * del servlet; lo que se ejecuta después en otro hilo empieza una traza nueva.
+ * La pila se reserva una vez por hilo, también por cada hilo virtual.
+ */
+@Component
+@EnableConfigurationProperties(TracingProperties.class)
+public class SpanRecorder {
+
+    /* Valor de open() cuando no se ha abierto ningún span */
+    public static final int NO_SPAN = -1;
+
+    /* Profundidad máxima de la pila; más allá los spans no se registran */
+    static final int MAX_DEPTH = 32;
+
+    private final boolean enabled;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    /* Para pasar System.nanoTime() a hora del reloj al volcar */
+    private final long epochOffsetNanos;
+
+    private final ThreadLocal<SpanStack> stacks = ThreadLocal.withInitial(SpanStack::new);
+
+    public SpanRecorder(TracingProperties properties) {
+        this.enabled = properties.isEnabled();
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getCapacity() - 1)) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.epochOffsetNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+    }
+
+    /*
+     * Abre un span hijo del que esté abierto en este hilo. Devuelve su posición en
+     * la pila, que hay que pasar a close(), o NO_SPAN si el registro está
+     * desactivado.
+     */
+    public int open(SpanKind kind, Object name) {
+        if (!enabled) {
+            return NO_SPAN;
+        }
+        return stacks.get().push(kind, name, ids.incrementAndGet(), System.nanoTime());
+    }
+
+    /* Cierra el span y los que hubieran quedado abiertos encima de él */
+    public void close(int span, boolean error) {
+        if (span == NO_SPAN) {
+            return;
+        }
+        long end = System.nanoTime();
+        SpanStack stack = stacks.get();
+        if (span >= stack.depth) {
+            /* Ya se cerró (por ejemplo al cerrar un span exterior) */
+            return;
+        }
+        stack.depth = span;
+        if (span < MAX_DEPTH) {
+            record(stack, span, end, error);
+        }
+    }
+
+    private void record(SpanStack stack, int index, long end, boolean error) {
+        long sequence = cursor.getAndIncrement();
+        Slot slot = slots[(int) sequence & mask];
+        if (!slot.claim(sequence)) {
+            dropped.increment();
+            stack.names[index] = null;
+            return;
+        }
+        slot.traceId = stack.traceIds[index];
+        slot.spanId = stack.spanIds[index];
+        slot.parentId = index > 0 ? stack.spanIds[index - 1] : 0;
+        slot.kind = stack.kinds[index];
+        slot.name = stack.names[index];
+        slot.startNanos = stack.starts[index];
+        slot.durationNanos = end - stack.starts[index];
+        slot.threadId = Thread.currentThread().threadId();
+        slot.error = error;
+        /* Escritura volátil: publica el resto de campos */
+        slot.publish(sequence);
+        stack.names[index] = null;
+    }
+
+    /* Spans terminados desde que arrancó la aplicación, también los ya sobrescritos */
+    public long recorded() {
+        return cursor.get();
+    }
+
+    /* Spans descartados porque otro escritor tenía su hueco */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public void clear() {
+        for (Slot slot : slots) {
+            slot.clear();
+        }
+    }
+
+    /* Las limit trazas más recientes, cada una con sus spans y el tiempo propio por tipo */
+    public Map<String, Object> snapshot(int limit) {
+        List<SpanView> spans = new ArrayList<>();
+        for (Slot slot : slots) {
+            SpanView span = slot.read();
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(SpanView::startNanos));
+
+        Map<Long, List<SpanView>> traces = new LinkedHashMap<>();
+        for (SpanView span : spans) {
+            traces.computeIfAbsent(span.traceId(), id -> new ArrayList<>()).add(span);
+        }
+        List<Map<String, Object>> recent = new ArrayList<>();
+        List<List<SpanView>> ordered = new ArrayList<>(traces.values());
+        for (int i = ordered.size() - 1; i >= 0 && recent.size() < limit; i--) {
+            recent.add(describe(ordered.get(i)));
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("capacity", slots.length);
+        snapshot.put("recorded", recorded());
+        snapshot.put("dropped", dropped());
+        snapshot.put("traces", recent);
+        return snapshot;
+    }
+
+    private Map<String, Object> describe(List<SpanView> trace) {
+        /* Tiempo propio: la duración menos la de los hijos directos */
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (SpanView span : trace) {
+            childNanos.merge(span.parentId(), span.durationNanos(), Long::sum);
+        }
+        Map<String, Object> selfMicros = new LinkedHashMap<>();
+        for (SpanKind kind : SpanKind.values()) {
+            long self = trace.stream().filter(span -> span.kind() == kind)
+                    .mapToLong(span -> span.durationNanos() - childNanos.getOrDefault(span.spanId(), 0L))
+                    .sum();
+            selfMicros.put(kind.name().toLowerCase(), micros(self));
+        }
+
+        long traceStart = trace.get(0).startNanos();
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (SpanView span : trace) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("spanId", span.spanId());
+            values.put("parentId", span.parentId());
+            values.put("kind", span.kind().name());
+            values.put("name", name(span.name()));
+            values.put("thread", span.threadId());
+            values.put("offsetMicros", micros(span.startNanos() - traceStart));
+            values.put("durationMicros", micros(span.durationNanos()));
+            values.put("error", span.error());
+            spans.add(values);
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("traceId", trace.get(0).traceId());
+        values.put("start", Instant.ofEpochSecond(0, traceStart + epochOffsetNanos).toString());
+        values.put("selfMicros", selfMicros);
+        values.put("spans", spans);
+        return values;
+    }
+
+    private static String name(Object name) {
+        return name instanceof Method method ? MethodLatencyRecorder.signature(method) : String.valueOf(name);
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    record SpanView(long traceId, long spanId, long parentId, SpanKind kind, Object name, long startNanos,
+            long durationNanos, long threadId, boolean error) {
+    }
+
+    /* Spans abiertos de un hilo, en arrays reservados una vez por hilo */
+    private static final class SpanStack {
+
+        final long[] traceIds = new long[MAX_DEPTH];
+        final long[] spanIds = new long[MAX_DEPTH];
+        final long[] starts = new long[MAX_DEPTH];
+        final SpanKind[] kinds = new SpanKind[MAX_DEPTH];
+        final Object[] names = new Object[MAX_DEPTH];
+        int depth;
+
+        int push(SpanKind kind, Object name, long id, long start) {
+            int index = depth++;
+            if (index < MAX_DEPTH) {
+                traceIds[index] = index > 0 ? traceIds[index - 1] : id;
+                spanIds[index] = id;
+                starts[index] = start;
+                kinds[index] = kind;
+                names[index] = name;
+            }
+            return index;
+        }
+    }
+
+    static final class Slot {
+
+        private static final long EMPTY = -1;
+        private static final long WRITING = -2;
+
+        private static final VarHandle VERSION;
+
+        static {
+            try {
+                VERSION = MethodHandles.lookup().findVarHandle(Slot.class, "version", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /* Secuencia del span guardado; EMPTY si está vacío y WRITING mientras se escribe */
+        volatile long version = EMPTY;
+
+        long traceId;
+        long spanId;
+        long parentId;
+        SpanKind kind;
+        Object name;
+        long startNanos;
+        long durationNanos;
+        long threadId;
+        boolean error;
+
+        /*
+         * Reserva el hueco para el span sequence; false si otro escritor lo está
+         * escribiendo o ya guardó uno más reciente
+         */
+        boolean claim(long sequence) {
+            long current = version;
+            if (current == WRITING || current >= sequence) {
+                return false;
+            }
+            if (!VERSION.compareAndSet(this, current, WRITING)) {
+                return false;
+            }
+            /* Los campos no se escriben antes de que se vea WRITING */
+            VarHandle.storeStoreFence();
+            return true;
+        }
+
+        void publish(long sequence) {
+            version = sequence;
+        }
+
+        /* Un hueco que se está escribiendo lo deja su escritor */
+        void clear() {
+            long current = version;
+            if (current >= 0) {
+                VERSION.compareAndSet(this, current, EMPTY);
+            }
+        }
+
+        /* Copia del span, o null si está vacío o se sobrescribió mientras se leía */
+        SpanView read() {
+            long before = version;
+            if (before < 0) {
+                return null;
+            }
+            SpanView span = new SpanView(traceId, spanId, parentId, kind, name, startNanos, durationNanos, threadId,
+                    error);
+            VarHandle.loadLoadFence();
+            return version == before ? span : null;
+        }
+    }
+}
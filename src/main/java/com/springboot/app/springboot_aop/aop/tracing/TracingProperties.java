@@ -0,0 +1,32 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de {@link SpanRecorder} (prefijo greeting.aop.tracing).
+ */
+@ConfigurationProperties(prefix = "greeting.aop.tracing")
+public class TracingProperties {
+
+    /* false: no se abre ningún span */
+    private boolean enabled = true;
+
+    /* Spans terminados que se conservan; se redondea a potencia de dos */
+    private int capacity = 4096;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+}
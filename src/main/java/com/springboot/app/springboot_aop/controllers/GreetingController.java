@@ -1,20 +1,39 @@
 package com.springboot.app.springboot_aop.controllers;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.app.springboot_aop.services.GreetingBatchSummary;
+import com.springboot.app.springboot_aop.services.GreetingResult;
 import com.springboot.app.springboot_aop.services.GreetingService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 public class GreetingController {
 
     @Autowired
     private GreetingService greetingService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /*
      * Cuando se invoca el método sayHello(..) en el controlador, como se intercepta
      * antes, se va a ejecutar el aspecto (GreetingAspect) primero, y todo dentro
@@ -23,18 +42,87 @@ public class GreetingController {
      * implementado por GreetingServiceImpl y va a imprimier el menesaje en consola
      * después (al final)
      */
+    /*
+     * La respuesta es un GreetingResponse y no un Map: la escribe
+     * GreetingResponseConverter directamente en bytes, igual que lo haría Jackson
+     */
     @GetMapping("/greeting")
-    public ResponseEntity<?> greeting() {
+    public GreetingResponse greeting() {
 
-        return ResponseEntity
-                .ok(Collections.singletonMap("greeting", greetingService.sayHello("Daniel", "Hola que tal!")));
+        return new GreetingResponse(greetingService.sayHello("Daniel", "Hola que tal!"));
     }
 
     @GetMapping("/greeting-error")
-    public ResponseEntity<?> greetingError() {
+    public GreetingResponse greetingError() {
+
+        return new GreetingResponse(greetingService.sayHelloThrowAnError("Daniel", "Hola que tal!"));
+    }
+
+    /*
+     * Lote de saludos en una sola petición: recibe un array JSON o NDJSON de
+     * {"person", "phrase"} y responde NDJSON, una línea por elemento y al final
+     * una línea con los totales. La entrada se lee y la salida se escribe según
+     * avanza el lote, así que la memoria no crece con su tamaño. Los aspectos se
+     * ejecutan una vez por lote (sayHelloBatch), no una vez por saludo
+     */
+    @PostMapping(path = "/greetings", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> greetings(HttpServletRequest request) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream());
+        GreetingRequestReader requests;
+        try {
+            requests = new GreetingRequestReader(parser);
+        } catch (JsonProcessingException e) {
+            parser.close();
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getOriginalMessage(), e);
+        }
+
+        StreamingResponseBody body = output -> {
+            try (parser; JsonGenerator generator = ndjsonGenerator(output)) {
+                GreetingBatchSummary summary;
+                try {
+                    summary = greetingService.sayHelloBatch(requests, result -> writeResult(generator, result));
+                } catch (GreetingRequestReader.InvalidRequestException e) {
+                    /* El 200 ya se envió: el error va en la última línea en lugar de los totales */
+                    generator.writeStartObject();
+                    generator.writeStringField("error", "invalid_request");
+                    generator.writeStringField("message", e.getMessage());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    return;
+                }
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("summary");
+                generator.writeNumberField("greetings", summary.greetings());
+                generator.writeNumberField("failures", summary.failures());
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private JsonGenerator ndjsonGenerator(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        /* El contenedor cierra la respuesta; el generador sólo vacía su buffer */
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        return generator;
+    }
 
-        return ResponseEntity
-                .ok(Collections.singletonMap("greeting",
-                        greetingService.sayHelloThrowAnError("Daniel", "Hola que tal!")));
+    private static void writeResult(JsonGenerator generator, GreetingResult result) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("person", result.person());
+            if (result.failed()) {
+                generator.writeStringField("error", result.error());
+            } else {
+                generator.writeStringField("greeting", result.greeting());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
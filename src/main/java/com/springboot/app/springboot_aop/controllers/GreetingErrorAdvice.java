@@ -0,0 +1,38 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.springboot.app.springboot_aop.aop.resilience.CallNotPermittedException;
+import com.springboot.app.springboot_aop.services.GreetingServiceException;
+
+/**
+ * Convierte los errores de GreetingService en un JSON compacto
+ * ({"error": .., "message": ..}) sin pasar por el manejo de errores por
+ * defecto de Spring Boot, que reenvía la petición a /error, vuelve a recorrer
+ * los filtros y construye la respuesta a partir del stack trace.
+ *
+ * Las llamadas rechazadas por @Bulkhead o @CircuitBreaker son un 503: el
+ * servicio no se ha ejecutado y se puede reintentar más tarde.
+ */
+@RestControllerAdvice
+public class GreetingErrorAdvice {
+
+    public record ErrorResponse(String error, String message) {
+    }
+
+    @ExceptionHandler(GreetingServiceException.class)
+    public ResponseEntity<ErrorResponse> greetingFailed(GreetingServiceException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("greeting_failed", e.getMessage()));
+    }
+
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<ErrorResponse> callNotPermitted(CallNotPermittedException e) {
+        String error = e.getReason() == CallNotPermittedException.Reason.BULKHEAD_FULL ? "bulkhead_full"
+                : "circuit_open";
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(error, e.getMessage()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.springboot.app.springboot_aop.services.GreetingRequest;
+
+/**
+ * Lee los elementos de POST /greetings a medida que llegan, con el parser de
+ * streaming de Jackson: nunca hay más de un elemento en memoria.
+ *
+ * Acepta un array JSON ([{"person":..,"phrase":..}, ...]) o NDJSON (un objeto
+ * por línea). Los campos desconocidos se ignoran. Un elemento mal formado
+ * después del primero se notifica con {@link InvalidRequestException} desde
+ * hasNext(): para entonces la respuesta ya puede estar enviada.
+ */
+class GreetingRequestReader implements Iterator<GreetingRequest> {
+
+    private final JsonParser parser;
+    private final boolean array;
+    private GreetingRequest next;
+    private boolean done;
+
+    GreetingRequestReader(JsonParser parser) throws IOException {
+        this.parser = parser;
+        JsonToken first = parser.nextToken();
+        this.array = first == JsonToken.START_ARRAY;
+        this.done = first == null;
+        if (!array && !done) {
+            next = readObject();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public GreetingRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GreetingRequest request = next;
+        next = null;
+        return request;
+    }
+
+    private GreetingRequest advance() {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                done = true;
+                return null;
+            }
+            return readObject();
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException(e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* El parser está en START_OBJECT */
+    private GreetingRequest readObject() throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser,
+                    "Se esperaba un objeto {\"person\", \"phrase\"} y se encontro " + parser.currentToken());
+        }
+        String person = null;
+        String phrase = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "person" -> person = parser.getValueAsString();
+                case "phrase" -> phrase = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return new GreetingRequest(person, phrase);
+    }
+
+    /* Un elemento del lote que no es JSON válido o no es un objeto */
+    static class InvalidRequestException extends RuntimeException {
+
+        InvalidRequestException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.springboot.app.springboot_aop.controllers;
+
+/* Respuesta de /greeting: {"greeting": ..}; la escribe GreetingResponseConverter */
+public record GreetingResponse(String greeting) {
+}
@@ -0,0 +1,173 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Escribe {@link GreetingResponse} como application/json sin pasar por
+ * ObjectMapper: la forma es fija, así que el prefijo {"greeting":" y el sufijo
+ * "} están precalculados y sólo se codifica el texto del saludo. La respuesta
+ * se construye en un único byte[] de la longitud exacta y se copia una vez en
+ * el buffer de salida del contenedor, sin generador, sin BufferRecycler y sin
+ * buscar el serializador del tipo.
+ *
+ * El resultado es byte a byte el mismo que el de Jackson: mismas secuencias de
+ * escape (\" \\ \b \t \n \f \r, \\u00XX para el resto de controles y \\uXXXX
+ * para cada surrogate, como hace Jackson 2.17 con los caracteres fuera del BMP)
+ * y UTF-8 sin escapar para lo demás. Al crearse lo comprueba contra el
+ * ObjectMapper de la aplicación con un saludo de prueba; si no coincide
+ * (spring.jackson.* con indentación, otra estrategia de nombres o escapes
+ * distintos) delega siempre en él. También delega un saludo null.
+ *
+ * Spring Boot añade los HttpMessageConverter que son beans delante de los de
+ * por defecto, así que para GreetingResponse se elige éste antes que Jackson.
+ */
+@Component
+public class GreetingResponseConverter extends AbstractHttpMessageConverter<GreetingResponse> {
+
+    private static final byte[] PREFIX = "{\"greeting\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /* Comillas, barras, controles, no ASCII y un par surrogate */
+    static final String PROBE = "\"\\/\b\t\n\f\r\u0000\u001f\u007f ñ€😀";
+
+    private final ObjectMapper objectMapper;
+    private final boolean matchesObjectMapper;
+
+    public GreetingResponseConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        this.matchesObjectMapper = matches(objectMapper);
+    }
+
+    private boolean matches(ObjectMapper objectMapper) {
+        try {
+            GreetingResponse probe = new GreetingResponse(PROBE);
+            return Arrays.equals(objectMapper.writeValueAsBytes(probe), encode(PROBE, length(PROBE)));
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    /* true si las respuestas no pasan por ObjectMapper */
+    public boolean isDirect() {
+        return matchesObjectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GreetingResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GreetingResponse readInternal(Class<? extends GreetingResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("GreetingResponse sólo se escribe", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(GreetingResponse response, HttpOutputMessage outputMessage) throws IOException {
+        if (!matchesObjectMapper || response.greeting() == null) {
+            objectMapper.writeValue(outputMessage.getBody(), response);
+            return;
+        }
+        outputMessage.getBody().write(encode(response.greeting(), length(response.greeting())));
+    }
+
+    /* Bytes de la respuesta completa */
+    private static int length(String text) {
+        int length = PREFIX.length + SUFFIX.length;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += c < 0x20 ? escapedLength(c) : c == '"' || c == '\\' ? 2 : 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                length += 6;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int escapedLength(char c) {
+        return switch (c) {
+            case '\b', '\t', '\n', '\f', '\r' -> 2;
+            default -> 6;
+        };
+    }
+
+    private static byte[] encode(String text, int length) {
+        byte[] bytes = new byte[length];
+        System.arraycopy(PREFIX, 0, bytes, 0, PREFIX.length);
+        int position = PREFIX.length;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    bytes[position++] = (byte) c;
+                } else {
+                    position = escape(c, bytes, position);
+                }
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xc0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                position = unicodeEscape(c, bytes, position);
+            } else {
+                bytes[position++] = (byte) (0xe0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        System.arraycopy(SUFFIX, 0, bytes, position, SUFFIX.length);
+        return bytes;
+    }
+
+    private static int escape(char c, byte[] bytes, int position) {
+        char escaped = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (escaped == 0) {
+            return unicodeEscape(c, bytes, position);
+        }
+        bytes[position++] = '\\';
+        bytes[position++] = (byte) escaped;
+        return position;
+    }
+
+    private static int unicodeEscape(char c, byte[] bytes, int position) {
+        bytes[position++] = '\\';
+        bytes[position++] = 'u';
+        bytes[position++] = HEX[c >> 12];
+        bytes[position++] = HEX[(c >> 8) & 0xf];
+        bytes[position++] = HEX[(c >> 4) & 0xf];
+        bytes[position++] = HEX[c & 0xf];
+        return position;
+    }
+}
@@ -0,0 +1,45 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.springboot.app.springboot_aop.services.ReactiveGreetingService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Las mismas rutas que GreetingController con ReactiveGreetingService. Spring MVC
+ * se suscribe al Mono o al Flux devuelto y completa la respuesta de forma
+ * asíncrona, sin ocupar el hilo de la petición mientras espera; los errores
+ * llegan a GreetingErrorAdvice igual que si se hubieran lanzado aquí
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveGreetingController {
+
+    @Autowired
+    private ReactiveGreetingService greetingService;
+
+    @GetMapping("/greeting")
+    public Mono<GreetingResponse> greeting() {
+        return greetingService.sayHello("Daniel", "Hola que tal!").map(GreetingResponse::new);
+    }
+
+    @GetMapping("/greeting-error")
+    public Mono<GreetingResponse> greetingError() {
+        return greetingService.sayHelloThrowAnError("Daniel", "Hola que tal!").map(GreetingResponse::new);
+    }
+
+    /* Un saludo por persona, en NDJSON y escrito según se emite */
+    @GetMapping(path = "/greetings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GreetingResponse> greetings(@RequestParam List<String> person) {
+        return greetingService.sayHelloEach(person, "Hola que tal!").map(GreetingResponse::new);
+    }
+}
@@ -0,0 +1,13 @@
+package com.springboot.app.springboot_aop.services;
+
+/*
+ * Totales de un lote. Es lo que ven los advice de lote (una vez por lote), así
+ * que su toString forma parte de las líneas de log
+ */
+public record GreetingBatchSummary(long greetings, long failures) {
+
+    @Override
+    public String toString() {
+        return greetings + " saludos, " + failures + " errores";
+    }
+}
@@ -0,0 +1,5 @@
+package com.springboot.app.springboot_aop.services;
+
+/* Un elemento de un lote de saludos (POST /greetings) */
+public record GreetingRequest(String person, String phrase) {
+}
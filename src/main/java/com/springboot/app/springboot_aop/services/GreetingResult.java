@@ -0,0 +1,17 @@
+package com.springboot.app.springboot_aop.services;
+
+/* Resultado de un elemento del lote: el saludo o, si no se pudo saludar, el motivo */
+public record GreetingResult(String person, String greeting, String error) {
+
+    public static GreetingResult greeting(String person, String greeting) {
+        return new GreetingResult(person, greeting, null);
+    }
+
+    public static GreetingResult error(String person, String error) {
+        return new GreetingResult(person, null, error);
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+}
@@ -1,7 +1,16 @@
 package com.springboot.app.springboot_aop.services;
 
+import java.util.Iterator;
+import java.util.function.Consumer;
+
 public interface GreetingService {
     String sayHello(String person, String phrase);
 
     String sayHelloThrowAnError(String person, String phrase);
+
+    /*
+     * Saluda a cada elemento según se lee de requests y entrega cada resultado a
+     * results en el mismo orden, sin acumular el lote en memoria
+     */
+    GreetingBatchSummary sayHelloBatch(Iterator<GreetingRequest> requests, Consumer<GreetingResult> results);
 }
@@ -0,0 +1,45 @@
+package com.springboot.app.springboot_aop.services;
+
+/**
+ * Error de GreetingService. GreetingErrorAdvice lo convierte directamente en
+ * una respuesta JSON compacta.
+ *
+ * Crear una excepción normal recorre la pila para rellenar el stack trace, que
+ * es lo más caro de un fallo y nadie lee: los aspectos sólo registran el
+ * mensaje. Según greeting.service.error-mode la excepción se crea:
+ * - FULL: con stack trace, como cualquier RuntimeException.
+ * - STACKLESS: sin stack trace ni excepciones suprimidas; una instancia nueva
+ * por fallo.
+ * - PREALLOCATED: siempre la misma instancia sin stack trace por mensaje, sin
+ * asignar memoria al fallar. Es inmutable, así que se puede compartir entre
+ * hilos y entre las llamadas agrupadas por SingleFlightAspect.
+ */
+public class GreetingServiceException extends RuntimeException {
+
+    public enum Mode {
+        FULL, STACKLESS, PREALLOCATED
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    public GreetingServiceException(String message) {
+        super(message);
+    }
+
+    protected GreetingServiceException(String message, boolean stackTrace) {
+        super(message, null, stackTrace, stackTrace);
+    }
+
+    public static GreetingServiceException stackless(String message) {
+        return new GreetingServiceException(message, false);
+    }
+
+    /* La excepción que corresponde a mode; preallocated es la instancia sin stack trace que se reutiliza */
+    public static GreetingServiceException create(Mode mode, GreetingServiceException preallocated) {
+        return switch (mode) {
+            case FULL -> new GreetingServiceException(preallocated.getMessage());
+            case STACKLESS -> stackless(preallocated.getMessage());
+            case PREALLOCATED -> preallocated;
+        };
+    }
+}
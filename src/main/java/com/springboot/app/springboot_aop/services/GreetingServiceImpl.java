@@ -1,20 +1,100 @@
 package com.springboot.app.springboot_aop.services;
 
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.springboot.app.springboot_aop.aop.cache.Memoized;
+import com.springboot.app.springboot_aop.aop.coalesce.SingleFlight;
+import com.springboot.app.springboot_aop.aop.resilience.Bulkhead;
+import com.springboot.app.springboot_aop.aop.resilience.CircuitBreaker;
 
 @Service
 public class GreetingServiceImpl implements GreetingService {
 
+    /*
+     * Antes era System.out.println: PrintStream sincroniza cada escritura y, con
+     * hilos virtuales, el hilo quedaba anclado a su carrier mientras escribía.
+     * Los appenders de logback usan ReentrantLock, que no ancla el hilo
+     */
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final GreetingServiceException SIMULATED_ERROR = GreetingServiceException
+            .stackless("Simulando algun error");
+
+    /* FULL, STACKLESS o PREALLOCATED (ver GreetingServiceException) */
+    @Value("${greeting.service.error-mode:full}")
+    private GreetingServiceException.Mode errorMode = GreetingServiceException.Mode.FULL;
+
+    /* Simula un backend lento detrás del servicio (pruebas de carga); 0 no espera */
+    @Value("${greeting.service.simulated-latency:0ms}")
+    private Duration simulatedLatency = Duration.ZERO;
+
+    @Memoized
+    @SingleFlight
+    @Bulkhead
+    @CircuitBreaker
     @Override
     public String sayHello(String person, String phrase) {
+        simulateBackend();
         String greeting = phrase + " " + person;
-        System.out.println(greeting);
+        logger.info(greeting);
         return greeting;
     }
 
+    @SingleFlight
+    @Bulkhead
+    @CircuitBreaker
     @Override
     public String sayHelloThrowAnError(String person, String phrase) {
-        throw new RuntimeException("Simulando algun error");
+        throw GreetingServiceException.create(errorMode, SIMULATED_ERROR);
+    }
+
+    /*
+     * Los elementos se procesan con un método privado y no a través de
+     * sayHello: la llamada no pasa por el proxy, así que los aspectos sólo ven
+     * el lote (GreetingServicePointcuts.greetingBatchPointCut)
+     */
+    @Override
+    public GreetingBatchSummary sayHelloBatch(Iterator<GreetingRequest> requests, Consumer<GreetingResult> results) {
+        long greetings = 0;
+        long failures = 0;
+        while (requests.hasNext()) {
+            GreetingResult result = greet(requests.next());
+            if (result.failed()) {
+                failures++;
+            } else {
+                greetings++;
+            }
+            results.accept(result);
+        }
+        return new GreetingBatchSummary(greetings, failures);
+    }
+
+    private GreetingResult greet(GreetingRequest request) {
+        if (!StringUtils.hasText(request.person()) || !StringUtils.hasText(request.phrase())) {
+            return GreetingResult.error(request.person(), "person y phrase son obligatorios");
+        }
+        simulateBackend();
+        String greeting = request.phrase() + " " + request.person();
+        logger.debug(greeting);
+        return GreetingResult.greeting(request.person(), greeting);
+    }
+
+    private void simulateBackend() {
+        if (!simulatedLatency.isZero()) {
+            try {
+                Thread.sleep(simulatedLatency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
 }
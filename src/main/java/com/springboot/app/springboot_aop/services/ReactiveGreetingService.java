@@ -0,0 +1,19 @@
+package com.springboot.app.springboot_aop.services;
+
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Variante no bloqueante de GreetingService: el saludo se calcula al suscribirse
+ * y la latencia simulada es un temporizador, no un hilo dormido
+ */
+public interface ReactiveGreetingService {
+    Mono<String> sayHello(String person, String phrase);
+
+    Mono<String> sayHelloThrowAnError(String person, String phrase);
+
+    /* Un saludo por persona, en el mismo orden */
+    Flux<String> sayHelloEach(List<String> persons, String phrase);
+}
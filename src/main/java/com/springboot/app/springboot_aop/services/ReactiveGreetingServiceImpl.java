@@ -0,0 +1,54 @@
+package com.springboot.app.springboot_aop.services;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveGreetingServiceImpl implements ReactiveGreetingService {
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final GreetingServiceException SIMULATED_ERROR = GreetingServiceException
+            .stackless("Simulando algun error");
+
+    @Value("${greeting.service.error-mode:full}")
+    private GreetingServiceException.Mode errorMode = GreetingServiceException.Mode.FULL;
+
+    /* Igual que en GreetingServiceImpl, pero con un temporizador de Reactor en lugar de Thread.sleep */
+    @Value("${greeting.service.simulated-latency:0ms}")
+    private Duration simulatedLatency = Duration.ZERO;
+
+    @Override
+    public Mono<String> sayHello(String person, String phrase) {
+        return simulateBackend(Mono.fromSupplier(() -> greet(person, phrase)));
+    }
+
+    @Override
+    public Mono<String> sayHelloThrowAnError(String person, String phrase) {
+        return simulateBackend(Mono.error(() -> GreetingServiceException.create(errorMode, SIMULATED_ERROR)));
+    }
+
+    @Override
+    public Flux<String> sayHelloEach(List<String> persons, String phrase) {
+        return simulateBackend(Mono.empty())
+                .thenMany(Flux.fromIterable(persons).map(person -> greet(person, phrase)));
+    }
+
+    private String greet(String person, String phrase) {
+        String greeting = phrase + " " + person;
+        logger.info(greeting);
+        return greeting;
+    }
+
+    private <T> Mono<T> simulateBackend(Mono<T> result) {
+        return simulatedLatency.isZero() ? result : result.delaySubscription(simulatedLatency);
+    }
+}
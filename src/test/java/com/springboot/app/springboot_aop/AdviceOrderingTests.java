@@ -0,0 +1,272 @@
+package com.springboot.app.springboot_aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.AspectJPrecedenceInformation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springboot.app.springboot_aop.aop.GreetingAspect;
+import com.springboot.app.springboot_aop.aop.GreetingFooAspect;
+import com.springboot.app.springboot_aop.aop.WovenAspectsPostProcessor;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.services.GreetingBatchSummary;
+import com.springboot.app.springboot_aop.services.GreetingRequest;
+import com.springboot.app.springboot_aop.services.GreetingService;
+import com.springboot.app.springboot_aop.services.ReactiveGreetingService;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import reactor.core.publisher.Mono;
+
+/**
+ * Comprueba que cada modo de interceptación produce exactamente las mismas
+ * líneas de log, en el mismo orden, que la cadena clásica de siete advice.
+ *
+ * Se ejecutan igual con mvn test (proxies) y con mvn -Pajc test (aspectos
+ * tejidos con ajc), así que también comparan los dos modos entre sí.
+ */
+class AdviceOrderingTests {
+
+    private static final List<String> SAY_HELLO = List.of(
+            "Antes (Foo): sayHello invocado con los parametros [Daniel, Hola que tal!]",
+            "El metodo: sayHello() con los argumentos [Daniel, Hola que tal!]",
+            "Antes: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "Despues de retornar: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "Despues: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "El metodo: sayHello() retorna el resultado: Hola que tal! Daniel",
+            "Despues (Foo): sayHello invocado con los parametros [Daniel, Hola que tal!]");
+
+    private static final List<String> SAY_HELLO_THROW_AN_ERROR = List.of(
+            "Antes (Foo): sayHelloThrowAnError invocado con los parametros [Daniel, Hola que tal!]",
+            "El metodo: sayHelloThrowAnError() con los argumentos [Daniel, Hola que tal!]",
+            "Antes: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Despues de lanzar la excepcion: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Despues: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Error en la llamada del metodo sayHelloThrowAnError()",
+            "Despues (Foo): sayHelloThrowAnError invocado con los parametros [Daniel, Hola que tal!]");
+
+    private static final List<String> SAY_HELLO_BATCH = List.of(
+            "Antes (Foo): lote sayHelloBatch iniciado",
+            "El metodo: sayHelloBatch() proceso el lote: 2 saludos, 1 errores",
+            "Despues (Foo): lote sayHelloBatch terminado: 2 saludos, 1 errores");
+
+    /* Los métodos reactivos sólo pasan por GreetingAspect, con las líneas escritas al suscribirse */
+    private static final List<String> REACTIVE_SAY_HELLO = List.of(
+            "El metodo: sayHello() con los argumentos [Daniel, Hola que tal!]",
+            "Antes: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "Despues de retornar: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "Despues: sayHello con los argumentos [Daniel, Hola que tal!]",
+            "El metodo: sayHello() retorna el resultado: Hola que tal! Daniel");
+
+    private static final List<String> REACTIVE_SAY_HELLO_THROW_AN_ERROR = List.of(
+            "El metodo: sayHelloThrowAnError() con los argumentos [Daniel, Hola que tal!]",
+            "Antes: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Despues de lanzar la excepcion: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Despues: sayHelloThrowAnError con los argumentos [Daniel, Hola que tal!]",
+            "Error en la llamada del metodo sayHelloThrowAnError()");
+
+    /* Un Flux retorna el número de elementos emitidos */
+    private static final List<String> REACTIVE_SAY_HELLO_EACH = List.of(
+            "El metodo: sayHelloEach() con los argumentos [[Daniel, Ana], Hola]",
+            "Antes: sayHelloEach con los argumentos [[Daniel, Ana], Hola]",
+            "Despues de retornar: sayHelloEach con los argumentos [[Daniel, Ana], Hola]",
+            "Despues: sayHelloEach con los argumentos [[Daniel, Ana], Hola]",
+            "El metodo: sayHelloEach() retorna el resultado: 2");
+
+    @Test
+    void classicModeLogsEveryAdviceInOrder() {
+        assertThat(capture(service -> service.sayHello("Daniel", "Hola que tal!"), "--greeting.aop.mode=classic"))
+                .isEqualTo(SAY_HELLO);
+        assertThat(capture(this::sayHelloThrowAnError, "--greeting.aop.mode=classic"))
+                .isEqualTo(SAY_HELLO_THROW_AN_ERROR);
+    }
+
+    @Test
+    void fusedModeMatchesClassicMode() {
+        assertThat(capture(service -> service.sayHello("Daniel", "Hola que tal!"), "--greeting.aop.mode=fused"))
+                .isEqualTo(SAY_HELLO);
+        assertThat(capture(this::sayHelloThrowAnError, "--greeting.aop.mode=fused"))
+                .isEqualTo(SAY_HELLO_THROW_AN_ERROR);
+    }
+
+    @Test
+    void synchronousLoggingMatchesAsynchronousLogging() {
+        assertThat(capture(service -> service.sayHello("Daniel", "Hola que tal!"),
+                "--greeting.aop.events.async=false")).isEqualTo(SAY_HELLO);
+        assertThat(capture(this::sayHelloThrowAnError, "--greeting.aop.events.async=false"))
+                .isEqualTo(SAY_HELLO_THROW_AN_ERROR);
+    }
+
+    @Test
+    void batchAdviceRunsOncePerBatchInEveryMode() {
+        assertThat(capture(this::sayHelloBatch, "--greeting.aop.mode=classic")).isEqualTo(SAY_HELLO_BATCH);
+        assertThat(capture(this::sayHelloBatch, "--greeting.aop.mode=fused")).isEqualTo(SAY_HELLO_BATCH);
+    }
+
+    @Test
+    void memoizedCallSkipsTheAdviceChainOnHit() {
+        assertThat(capture(service -> {
+            service.sayHello("Daniel", "Hola que tal!");
+            service.sayHello("Daniel", "Hola que tal!");
+        }, "--greeting.aop.cache.enabled=true")).isEqualTo(SAY_HELLO);
+    }
+
+    @Test
+    void disabledAdviceIsSkippedInEveryMode() {
+        List<String> withoutFooAndBefore = SAY_HELLO.stream()
+                .filter(line -> !line.startsWith("Antes") && !line.startsWith("Despues (Foo)"))
+                .toList();
+        for (String mode : List.of("--greeting.aop.mode=classic", "--greeting.aop.mode=fused")) {
+            assertThat(captureInContext(context -> {
+                AdviceToggles toggles = context.getBean(AdviceToggles.class);
+                toggles.set("GreetingFooAspect", null, false);
+                toggles.set("GreetingAspect.loggerBefore", null, false);
+                context.getBean(GreetingService.class).sayHello("Daniel", "Hola que tal!");
+            }, mode)).isEqualTo(withoutFooAndBefore);
+        }
+    }
+
+    @Test
+    void adviceCanBeDisabledForASingleMethod() {
+        assertThat(captureInContext(context -> {
+            context.getBean(AdviceToggles.class).set(null, "GreetingServiceImpl.sayHelloThrowAnError", false);
+            GreetingService service = context.getBean(GreetingService.class);
+            sayHelloThrowAnError(service);
+            service.sayHello("Daniel", "Hola que tal!");
+        })).isEqualTo(SAY_HELLO);
+    }
+
+    @Test
+    void adviceDisabledAtStartupCanBeEnabledForOneMethod() {
+        assertThat(captureInContext(context -> {
+            context.getBean(AdviceToggles.class).set(null, "GreetingServiceImpl.sayHello", true);
+            GreetingService service = context.getBean(GreetingService.class);
+            sayHelloThrowAnError(service);
+            service.sayHello("Daniel", "Hola que tal!");
+        }, "--greeting.aop.advice.disabled=*")).isEqualTo(SAY_HELLO);
+    }
+
+    @Test
+    void samplingLogsEveryLineOfOneInNCalls() {
+        List<String> expected = Stream.concat(SAY_HELLO.stream(), SAY_HELLO.stream()
+                .map(line -> line.replace("Daniel", "Luis") + " (omitidos por muestreo: 1)"))
+                .toList();
+        for (String mode : List.of("--greeting.aop.mode=classic", "--greeting.aop.mode=fused")) {
+            assertThat(capture(service -> {
+                service.sayHello("Daniel", "Hola que tal!");
+                service.sayHello("Ana", "Hola que tal!");
+                service.sayHello("Luis", "Hola que tal!");
+            }, mode, "--greeting.aop.events.sampling.mode=ratio", "--greeting.aop.events.sampling.ratio=2"))
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void loggingAdviceIsProxiedOnlyWhenAspectsAreNotWoven() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootAopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run()) {
+            Object service = context.getBean(GreetingService.class);
+            List<String> proxiedAspects = service instanceof Advised advised
+                    ? Stream.of(advised.getAdvisors())
+                            .filter(AspectJPrecedenceInformation.class::isInstance)
+                            .map(advisor -> ((AspectJPrecedenceInformation) advisor).getAspectName())
+                            .toList()
+                    : List.of();
+            if (WovenAspectsPostProcessor.isWoven()) {
+                assertThat(proxiedAspects).doesNotContain("greetingAspect", "greetingFooAspect");
+            } else {
+                assertThat(proxiedAspects).contains("greetingAspect", "greetingFooAspect");
+            }
+        }
+    }
+
+    @Test
+    void reactiveAdviceFollowsThePublisherInEveryMode() {
+        for (String mode : List.of("--greeting.aop.mode=classic", "--greeting.aop.mode=fused")) {
+            assertThat(captureReactive(service -> assertThat(service.sayHello("Daniel", "Hola que tal!").block())
+                    .isEqualTo("Hola que tal! Daniel"), mode)).isEqualTo(REACTIVE_SAY_HELLO);
+            assertThat(captureReactive(service -> assertThatThrownBy(
+                    () -> service.sayHelloThrowAnError("Daniel", "Hola que tal!").block())
+                    .isInstanceOf(RuntimeException.class), mode)).isEqualTo(REACTIVE_SAY_HELLO_THROW_AN_ERROR);
+            assertThat(captureReactive(service -> assertThat(service.sayHelloEach(List.of("Daniel", "Ana"), "Hola")
+                    .collectList().block()).hasSize(2), mode)).isEqualTo(REACTIVE_SAY_HELLO_EACH);
+        }
+    }
+
+    @Test
+    void reactiveAdviceWaitsForSubscriptionAndRunsOncePerSubscription() {
+        List<String> lines = captureInContext(context -> {
+            Logger greeting = (Logger) LoggerFactory.getLogger(GreetingAspect.class);
+            ListAppender<ILoggingEvent> assembly = new ListAppender<>();
+            assembly.start();
+            greeting.addAppender(assembly);
+            Mono<String> hello;
+            try {
+                hello = context.getBean(ReactiveGreetingService.class).sayHello("Daniel", "Hola que tal!");
+            } finally {
+                greeting.detachAppender(assembly);
+            }
+            /* Con los eventos síncronos, montar el Mono no escribe nada */
+            assertThat(assembly.list).isEmpty();
+            hello.block();
+            hello.block();
+        }, "--greeting.aop.events.async=false");
+        assertThat(lines).isEqualTo(Stream.concat(REACTIVE_SAY_HELLO.stream(), REACTIVE_SAY_HELLO.stream()).toList());
+    }
+
+    private void sayHelloBatch(GreetingService service) {
+        List<GreetingRequest> requests = List.of(new GreetingRequest("Daniel", "Hola que tal!"),
+                new GreetingRequest("Ana", "Hola"), new GreetingRequest("Luis", null));
+        assertThat(service.sayHelloBatch(requests.iterator(), result -> {
+        })).isEqualTo(new GreetingBatchSummary(2, 1));
+    }
+
+    private void sayHelloThrowAnError(GreetingService service) {
+        assertThatThrownBy(() -> service.sayHelloThrowAnError("Daniel", "Hola que tal!"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    /* Al cerrar el contexto se vacía el buffer de eventos, así que la lista ya está completa */
+    private List<String> capture(Consumer<GreetingService> call, String... args) {
+        return captureInContext(context -> call.accept(context.getBean(GreetingService.class)), args);
+    }
+
+    private List<String> captureReactive(Consumer<ReactiveGreetingService> call, String... args) {
+        return captureInContext(context -> call.accept(context.getBean(ReactiveGreetingService.class)), args);
+    }
+
+    private List<String> captureInContext(ContextCall call, String... args) {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        Logger foo = (Logger) LoggerFactory.getLogger(GreetingFooAspect.class);
+        Logger greeting = (Logger) LoggerFactory.getLogger(GreetingAspect.class);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootAopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            appender.start();
+            foo.addAppender(appender);
+            greeting.addAppender(appender);
+            call.accept(context);
+        } finally {
+            foo.detachAppender(appender);
+            greeting.detachAppender(appender);
+        }
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private interface ContextCall {
+
+        void accept(ConfigurableApplicationContext context);
+    }
+}
@@ -0,0 +1,209 @@
+package com.springboot.app.springboot_aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springboot.app.springboot_aop.LoadGenerator.LoadResult;
+import com.springboot.app.springboot_aop.aop.cache.MemoCacheProperties;
+import com.springboot.app.springboot_aop.aop.coalesce.SingleFlightProperties;
+import com.springboot.app.springboot_aop.aop.resilience.ResilienceAspect;
+import com.springboot.app.springboot_aop.aop.resilience.ResilienceProperties;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+import com.springboot.app.springboot_aop.services.GreetingService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Prueba de carga de extremo a extremo: arranca la aplicación en un puerto
+ * aleatorio y lanza /greeting y /greeting-error a ritmo constante
+ * (LoadGenerator.openLoop), con la latencia corregida por omisión coordinada.
+ * Así se mide lo que no ven los benchmarks JMH: Tomcat, Jackson, los proxies y
+ * el resto de la petición.
+ *
+ * Se repite con todos los aspectos, sin ninguno y con cada aspecto de @Order
+ * por separado. Las configuraciones se cambian en ejecución sobre la misma
+ * aplicación: los advice de GreetingFooAspect y GreetingAspect con AdviceToggles
+ * y MemoizingAspect, SingleFlightAspect y ResilienceAspect con su propiedad
+ * enabled. Un aspecto desactivado sigue en la cadena del proxy, igual que al
+ * desactivarlo en producción con /actuator/greetingadvice. La línea base
+ * (baseline en el JSON) es otra aplicación arrancada con spring.aop.auto=false:
+ * sin proxies, así que no paga ninguna comprobación de los aspectos.
+ *
+ * Para que los números se puedan comparar entre configuraciones y ejecuciones,
+ * el circuito de /greeting-error no se abre (failure-rate-threshold=101, que
+ * CircuitBreakerState trata como "nunca") y el bulkhead admite max-in-flight
+ * llamadas: ResilienceAspect mide el coste de sus comprobaciones y no los
+ * rechazos. Cada serie comprueba que /greeting sólo devuelve 200 y
+ * /greeting-error sólo 500, e informa aparte de las respuestas 503 (rejected) y
+ * de los aciertos de la caché de MemoizingAspect (cacheHits): con la caché
+ * activa, /greeting mide sobre todo aciertos.
+ *
+ * Sólo se ejecuta con -Dgreeting.loadtest=true:
+ *
+ * ./mvnw test -Dtest=GreetingLoadTests -Dgreeting.loadtest=true
+ *
+ * Opciones: greeting.loadtest.rate (peticiones por segundo, 200),
+ * .duration (10s), .warmup (3s), .max-in-flight (1000), .log-level (WARN, el
+ * de los aspectos y el servicio) y .results (target/greeting-loadtest.json, el
+ * fichero JSON con los resultados para comparar entre versiones).
+ */
+@EnabledIfSystemProperty(named = "greeting.loadtest", matches = "true")
+class GreetingLoadTests {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("greeting.loadtest.rate", "200"));
+    private static final Duration DURATION = duration("greeting.loadtest.duration", "10s");
+    private static final Duration WARMUP = duration("greeting.loadtest.warmup", "3s");
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("greeting.loadtest.max-in-flight", 1_000);
+    private static final String LOG_LEVEL = System.getProperty("greeting.loadtest.log-level", "WARN");
+    private static final Path RESULTS = Path.of(System.getProperty("greeting.loadtest.results",
+            "target/greeting-loadtest.json"));
+
+    /* Cada endpoint y el único código de estado que debe devolver */
+    private record Endpoint(String path, int status) {
+    }
+
+    private static final List<Endpoint> ENDPOINTS = List.of(new Endpoint("/greeting", 200),
+            new Endpoint("/greeting-error", 500));
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /*
+     * Una configuración: qué aspectos de orden -30, -20 y -10 están activos y qué
+     * selectores de AdviceToggles (null = los de greeting.aop.advice.disabled)
+     */
+    private record Configuration(String name, boolean memoizing, boolean singleFlight, boolean resilience,
+            List<String> advice) {
+    }
+
+    private static final List<Configuration> CONFIGURATIONS = List.of(
+            new Configuration("all", true, true, true, null),
+            new Configuration("none", false, false, false, List.of()),
+            new Configuration("MemoizingAspect", true, false, false, List.of()),
+            new Configuration("SingleFlightAspect", false, true, false, List.of()),
+            new Configuration("ResilienceAspect", false, false, true, List.of()),
+            new Configuration("GreetingFooAspect", false, false, false, List.of("GreetingFooAspect")),
+            new Configuration("GreetingAspect", false, false, false, List.of("GreetingAspect")));
+
+    @Test
+    void greetingEndpointsUnderConstantArrivalRate() throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Map<String, Object>> baseline = new ArrayList<>();
+        try (LoadGenerator load = new LoadGenerator()) {
+            try (ConfigurableApplicationContext context = start()) {
+                for (Configuration configuration : CONFIGURATIONS) {
+                    apply(context, configuration);
+                    results.addAll(measure(context, configuration.name(), load));
+                }
+                apply(context, CONFIGURATIONS.get(0));
+            }
+            /* Sin proxies: la línea base sin ningún aspecto en la cadena */
+            try (ConfigurableApplicationContext context = start("--spring.aop.auto=false")) {
+                assertThat(AopUtils.isAopProxy(context.getBean(GreetingService.class))).isFalse();
+                baseline.addAll(measure(context, "baseline", load));
+            }
+        }
+        write(results, baseline);
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                /* Por encima de 100 el circuito nunca se abre */
+                "--greeting.aop.resilience.circuit-breaker.failure-rate-threshold=101",
+                "--greeting.aop.resilience.bulkhead.max-concurrent=" + MAX_IN_FLIGHT,
+                "--logging.level.com.springboot.app.springboot_aop.aop=" + LOG_LEVEL,
+                "--logging.level.com.springboot.app.springboot_aop.services=" + LOG_LEVEL));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(SpringbootAopApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    /* Una serie por endpoint con la configuración que tenga la aplicación */
+    private List<Map<String, Object>> measure(ConfigurableApplicationContext context, String name,
+            LoadGenerator load) throws InterruptedException {
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Endpoint endpoint : ENDPOINTS) {
+            URI uri = URI.create(base + endpoint.path());
+            load.openLoop(uri, RATE, WARMUP, MAX_IN_FLIGHT);
+            double hitsBefore = cacheHits(context);
+            LoadResult result = load.openLoop(uri, RATE, DURATION, MAX_IN_FLIGHT);
+            long cacheHits = (long) (cacheHits(context) - hitsBefore);
+            logger.info(String.format("%s %s: %s rejected=%d cacheHits=%d", name, endpoint.path(), result,
+                    result.count(503), cacheHits));
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("configuration", name);
+            entry.put("endpoint", endpoint.path());
+            entry.putAll(result.toMap());
+            entry.put("rejected", result.count(503));
+            entry.put("cacheHits", cacheHits);
+            results.add(entry);
+
+            assertThat(result.failures()).isZero();
+            assertThat(result.count(endpoint.status())).as("%s %s", name, endpoint.path())
+                    .isEqualTo(result.requests());
+        }
+        return results;
+    }
+
+    private void apply(ConfigurableApplicationContext context, Configuration configuration) {
+        context.getBean(MemoCacheProperties.class).setEnabled(configuration.memoizing());
+        context.getBean(SingleFlightProperties.class).setEnabled(configuration.singleFlight());
+        context.getBean(ResilienceProperties.class).setEnabled(configuration.resilience());
+        /* Cada configuración empieza con los circuitos cerrados */
+        context.getBean(ResilienceAspect.class).reset();
+        AdviceToggles toggles = context.getBean(AdviceToggles.class);
+        toggles.reset();
+        if (configuration.advice() != null) {
+            toggles.set("*", null, false);
+            configuration.advice().forEach(aspect -> toggles.set(aspect, null, true));
+        }
+    }
+
+    private static double cacheHits(ConfigurableApplicationContext context) {
+        return context.getBean(MeterRegistry.class).find("greeting.aop.cache.hits").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count).sum();
+    }
+
+    private void write(List<Map<String, Object>> results, List<Map<String, Object>> baseline) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("java", Runtime.version().toString());
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("ratePerSecond", RATE);
+        report.put("duration", DURATION.toString());
+        report.put("warmup", WARMUP.toString());
+        report.put("logLevel", LOG_LEVEL);
+        report.put("baseline", baseline);
+        report.put("results", results);
+        if (RESULTS.getParent() != null) {
+            Files.createDirectories(RESULTS.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(RESULTS.toFile(), report);
+        logger.info("Resultados en " + RESULTS.toAbsolutePath());
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
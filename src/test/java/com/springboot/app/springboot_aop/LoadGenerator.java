@@ -0,0 +1,184 @@
+package com.springboot.app.springboot_aop;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Genera carga HTTP contra la aplicación arrancada en un puerto aleatorio, para
+ * las pruebas de carga (GreetingLoadTests, VirtualThreadLoadTests). Cada
+ * petición se envía desde su propio hilo virtual.
+ *
+ * - openLoop: llegadas a ritmo constante. La petición i tiene su instante
+ * previsto (inicio + i / ritmo) y su latencia se mide desde ese instante y no
+ * desde que se envió, así que si el servidor o el propio generador se retrasan,
+ * el retraso cuenta (corrección de la omisión coordinada). El tiempo desde el
+ * envío se guarda aparte como tiempo de servicio.
+ * - closedLoop: un número fijo de peticiones en vuelo; cada una sale cuando
+ * termina otra, así que la latencia es la del servicio.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private final ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(clients)
+            .build();
+
+    /*
+     * ratePerSecond peticiones por segundo durante duration. Con maxInFlight en
+     * vuelo las siguientes esperan, para no agotar los sockets si el servidor se
+     * atasca; esa espera también cuenta en la latencia
+     */
+    LoadResult openLoop(URI uri, double ratePerSecond, Duration duration, int maxInFlight)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).build();
+        long interval = (long) (1_000_000_000L / ratePerSecond);
+        long total = duration.toNanos() / interval;
+        Run run = new Run();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            clients.execute(() -> {
+                try {
+                    run.send(request, intended);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        return run.result(System.nanoTime() - start);
+    }
+
+    /* total peticiones con concurrency en vuelo en todo momento */
+    LoadResult closedLoop(URI uri, int concurrency, int total) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).build();
+        Run run = new Run();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            clients.execute(() -> {
+                try {
+                    run.send(request, System.nanoTime());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(concurrency);
+        return run.result(System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        http.close();
+        clients.close();
+    }
+
+    /* Las latencias y los códigos de estado de una carga */
+    private final class Run {
+
+        private final Recorder latencies = new Recorder(3);
+        private final Recorder serviceTimes = new Recorder(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder failures = new LongAdder();
+
+        void send(HttpRequest request, long intended) {
+            long sent = System.nanoTime();
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                long done = System.nanoTime();
+                latencies.recordValue(done - intended);
+                serviceTimes.recordValue(done - sent);
+                statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+            } catch (IOException e) {
+                failures.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.increment();
+            }
+        }
+
+        LoadResult result(long elapsedNanos) {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return new LoadResult(elapsedNanos, counts, failures.sum(), latencies.getIntervalHistogram(),
+                    serviceTimes.getIntervalHistogram());
+        }
+    }
+
+    /* Resultado de una carga; latencias en nanosegundos */
+    record LoadResult(long elapsedNanos, Map<Integer, Long> statuses, long failures, Histogram latencies,
+            Histogram serviceTimes) {
+
+        long requests() {
+            return latencies.getTotalCount();
+        }
+
+        long count(int status) {
+            return statuses.getOrDefault(status, 0L);
+        }
+
+        double throughput() {
+            return requests() / (elapsedNanos / 1e9);
+        }
+
+        /* Para el fichero de resultados */
+        Map<String, Object> toMap() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("requests", requests());
+            values.put("failures", failures);
+            values.put("throughput", Math.round(throughput() * 10) / 10.0);
+            Map<String, Long> codes = new LinkedHashMap<>();
+            statuses.forEach((status, count) -> codes.put(String.valueOf(status), count));
+            values.put("statuses", codes);
+            values.put("latencyMillis", percentiles(latencies));
+            values.put("serviceTimeMillis", percentiles(serviceTimes));
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d peticiones (%d fallos, estados %s), %.0f peticiones/s, p50=%.2fms p99=%.2fms"
+                    + " p999=%.2fms max=%.2fms", requests(), failures, statuses, throughput(), millis(latencies, 50),
+                    millis(latencies, 99), millis(latencies, 99.9), latencies.getMaxValue() / 1e6);
+        }
+
+        private static Map<String, Double> percentiles(Histogram histogram) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            values.put("p50", millis(histogram, 50));
+            values.put("p99", millis(histogram, 99));
+            values.put("p999", millis(histogram, 99.9));
+            values.put("max", histogram.getMaxValue() / 1e6);
+            return values;
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
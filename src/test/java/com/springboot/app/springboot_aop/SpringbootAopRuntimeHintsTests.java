@@ -0,0 +1,30 @@
+package com.springboot.app.springboot_aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+import com.springboot.app.springboot_aop.services.ReactiveGreetingService;
+
+class SpringbootAopRuntimeHintsTests {
+
+    @Test
+    void advisedMethodsAndTheirAnnotationsAreReachableByReflection() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new SpringbootAopRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class)).introspect())
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(ReactiveGreetingService.class.getMethod("sayHello", String.class, String.class))
+                .introspect())
+                .accepts(hints);
+        for (Class<?> annotation : SpringbootAopRuntimeHints.ANNOTATIONS) {
+            assertThat(RuntimeHintsPredicates.proxies().forInterfaces(annotation)).accepts(hints);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.springboot.app.springboot_aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springboot.app.springboot_aop.LoadGenerator.LoadResult;
+
+/**
+ * Compara hilos de plataforma y virtuales sirviendo /greeting con muchas
+ * peticiones simultáneas y un backend lento simulado
+ * (greeting.service.simulated-latency). La caché y el agrupamiento de llamadas
+ * se desactivan para que cada petición llegue al servicio.
+ *
+ * La carga es de bucle cerrado (LoadGenerator.closedLoop): siempre hay
+ * CONCURRENCY peticiones en vuelo. Es lenta y depende de la máquina, así que
+ * sólo se ejecuta con -Dgreeting.loadtest=true; el resultado (peticiones por
+ * segundo y percentiles) se escribe en el log.
+ */
+@EnabledIfSystemProperty(named = "greeting.loadtest", matches = "true")
+class VirtualThreadLoadTests {
+
+    private static final int CONCURRENCY = Integer.getInteger("greeting.loadtest.concurrency", 1_000);
+    private static final int REQUESTS = Integer.getInteger("greeting.loadtest.requests", 20_000);
+    private static final String BACKEND_LATENCY = System.getProperty("greeting.loadtest.latency", "50ms");
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform");
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        run("virtual");
+    }
+
+    private void run(String mode) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootAopApplication.class)
+                .profiles(mode.equals("virtual") ? "virtual" : "default")
+                .run("--server.port=0",
+                        "--greeting.service.simulated-latency=" + BACKEND_LATENCY,
+                        "--greeting.aop.cache.enabled=false",
+                        "--greeting.aop.single-flight.enabled=false",
+                        "--greeting.aop.resilience.bulkhead.max-concurrent=" + CONCURRENCY,
+                        "--logging.level.com.springboot.app.springboot_aop.aop=WARN",
+                        "--logging.level.com.springboot.app.springboot_aop.services=WARN")) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/greeting");
+            try (LoadGenerator load = new LoadGenerator()) {
+                load.closedLoop(uri, CONCURRENCY, CONCURRENCY);
+                LoadResult result = load.closedLoop(uri, CONCURRENCY, REQUESTS);
+                logger.info(String.format("%s: %d simultaneas, %s", mode, CONCURRENCY, result));
+                assertThat(result.failures()).isZero();
+                assertThat(result.count(200)).isEqualTo(result.requests());
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.springboot.app.springboot_aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.services.GreetingService;
+import com.springboot.app.springboot_aop.services.GreetingServiceException;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Llama al servicio desde muchos hilos virtuales y comprueba con JFR
+ * (jdk.VirtualThreadPinned) que ni los aspectos ni GreetingServiceImpl anclan
+ * el hilo virtual a su carrier mientras se bloquea.
+ *
+ * El buffer de eventos es diminuto para que los hilos tengan que esperar hueco
+ * (greeting.aop.events.overflow-policy=block). La caché, el agrupamiento de
+ * llamadas y la resiliencia se desactivan para que cada llamada llegue al
+ * servicio.
+ */
+class VirtualThreadPinningTests {
+
+    private static final String APP_PACKAGE = "com.springboot.app.springboot_aop";
+
+    @Test
+    void adviceChainDoesNotPinVirtualThreads() throws Exception {
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream();
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootAopApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .profiles("virtual")
+                        .run("--greeting.aop.events.capacity=16",
+                                "--greeting.service.simulated-latency=1ms",
+                                "--greeting.aop.cache.enabled=false",
+                                "--greeting.aop.single-flight.enabled=false",
+                                "--greeting.aop.resilience.enabled=false")) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (fromApplication(event)) {
+                    pinned.add(describe(event));
+                }
+            });
+            recording.startAsync();
+
+            GreetingService service = context.getBean(GreetingService.class);
+            MethodErrorCounter errorCounter = context.getBean(MethodErrorCounter.class);
+            Method sayHelloThrowAnError = GreetingServiceImpl.class.getMethod("sayHelloThrowAnError", String.class,
+                    String.class);
+            long errorsBefore = errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class);
+            AtomicInteger greeted = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < 2_000; i++) {
+                    String person = "Daniel" + (i % 200);
+                    calls.add(threads.submit(() -> {
+                        if (service.sayHello(person, "Hola que tal!") != null) {
+                            greeted.incrementAndGet();
+                        }
+                    }));
+                    calls.add(threads.submit(() -> {
+                        try {
+                            service.sayHelloThrowAnError(person, "Hola que tal!");
+                        } catch (GreetingServiceException e) {
+                            failed.incrementAndGet();
+                        }
+                    }));
+                }
+                for (Future<?> call : calls) {
+                    call.get();
+                }
+            }
+            recording.stop();
+
+            /* Cada llamada llegó al servicio: ninguna se resolvió por caché, agrupada o rechazada */
+            assertThat(greeted).hasValue(2_000);
+            assertThat(failed).hasValue(2_000);
+            assertThat(errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class) - errorsBefore)
+                    .isEqualTo(2_000);
+        }
+        assertThat(pinned).isEmpty();
+    }
+
+    private static boolean fromApplication(RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(APP_PACKAGE));
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n  at ", "pinned:\n  at ", ""));
+    }
+}
@@ -0,0 +1,152 @@
+package com.springboot.app.springboot_aop.aop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.springboot.app.springboot_aop.aop.journal.InvocationJournal;
+import com.springboot.app.springboot_aop.aop.journal.JournalProperties;
+import com.springboot.app.springboot_aop.aop.journal.JournalReader;
+import com.springboot.app.springboot_aop.aop.journal.JournalReader.JournalEntry;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderer;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderingProperties;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventPipeline;
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventProperties;
+import com.springboot.app.springboot_aop.aop.logging.InvocationPhase;
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyProperties;
+import com.springboot.app.springboot_aop.aop.metrics.MethodLatencyRecorder;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggleProperties;
+import com.springboot.app.springboot_aop.aop.toggle.AdviceToggles;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+class ReactiveInvocationObserverTests {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ReactiveInvocationObserverTests.class);
+
+    /* Bloquea al consumidor del buffer en la primera línea hasta que termina el test */
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AppenderBase<ILoggingEvent> blockingAppender = new AppenderBase<>() {
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        logger.setLevel(Level.INFO);
+        blockingAppender.start();
+        logger.addAppender(blockingAppender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        logger.detachAppender(blockingAppender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void aMonoCompletesWithoutWaitingForAFullBuffer() throws Exception {
+        ObjectProvider<MeterRegistry> noRegistry = new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        ArgumentRenderer renderer = new ArgumentRenderer(new ArgumentRenderingProperties());
+        InvocationEventProperties properties = new InvocationEventProperties();
+        properties.setCapacity(4);
+        InvocationEventPipeline pipeline = new InvocationEventPipeline(properties, renderer, noRegistry);
+        JournalProperties journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(directory);
+        InvocationJournal journal = new InvocationJournal(journalProperties, renderer);
+        ReactiveInvocationObserver observer = new ReactiveInvocationObserver(pipeline,
+                new MethodLatencyRecorder(new MethodLatencyProperties(), noRegistry),
+                new MethodErrorCounter(noRegistry), new AdviceToggles(new AdviceToggleProperties()), journal);
+        pipeline.start();
+        journal.start();
+        try {
+            /* El consumidor se queda escribiendo la primera línea y las siguientes llenan el buffer (4 huecos) */
+            pipeline.publish(logger, InvocationPhase.BEFORE, "greet", null, new Object[0], null, 0L);
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < 4; i++) {
+                pipeline.publish(logger, InvocationPhase.BEFORE, "greet", null, new Object[0], null, 0L);
+            }
+            assertThat(pipeline.queued()).isEqualTo(4);
+
+            Sample sample = proxy(new Sample(), observer);
+            String greeting = CompletableFuture.supplyAsync(() -> sample.greet("Daniel").block())
+                    .get(5, TimeUnit.SECONDS);
+
+            assertThat(greeting).isEqualTo("Hola Daniel");
+            /* Las cinco líneas de la llamada se descartan en lugar de esperar hueco */
+            assertThat(pipeline.dropped()).isEqualTo(5);
+        } finally {
+            release.countDown();
+            pipeline.flush(Duration.ofSeconds(5));
+            pipeline.stop();
+            journal.stop();
+        }
+        assertThat(JournalReader.readAll(directory)).extracting(JournalEntry::method)
+                .containsExactly("Sample.greet(String)");
+    }
+
+    private static Sample proxy(Sample target, ReactiveInvocationObserver observer) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ObservingAspect(observer));
+        return factory.getProxy();
+    }
+
+    @Aspect
+    static class ObservingAspect {
+
+        private final ReactiveInvocationObserver observer;
+
+        ObservingAspect(ReactiveInvocationObserver observer) {
+            this.observer = observer;
+        }
+
+        @Around("execution(reactor.core.publisher.Mono *(..))")
+        public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+            return observer.observe(joinPoint, LoggerFactory.getLogger(ReactiveInvocationObserverTests.class));
+        }
+    }
+
+    static class Sample {
+
+        public Mono<String> greet(String person) {
+            return Mono.fromSupplier(() -> "Hola " + person);
+        }
+    }
+}
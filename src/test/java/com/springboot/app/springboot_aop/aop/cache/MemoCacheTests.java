@@ -0,0 +1,61 @@
+package com.springboot.app.springboot_aop.aop.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class MemoCacheTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void returnsCachedValueForEqualArguments() {
+        MemoCache cache = new MemoCache(8, 0, clock::get);
+        assertThat(cache.get(new Object[] { "Daniel", "Hola" })).isSameAs(MemoCache.MISSING);
+
+        cache.put(new Object[] { "Daniel", "Hola" }, "Hola Daniel");
+        cache.put(new Object[] { "Ana", "Hola" }, null);
+
+        assertThat(cache.get(new Object[] { "Daniel", "Hola" })).isEqualTo("Hola Daniel");
+        assertThat(cache.get(new Object[] { "Ana", "Hola" })).isNull();
+        assertThat(cache.get(new Object[] { "Hola", "Daniel" })).isSameAs(MemoCache.MISSING);
+        assertThat(cache.hits.sum()).isEqualTo(2);
+        assertThat(cache.misses.sum()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsEntriesNotReadSinceTheLastPass() {
+        MemoCache cache = new MemoCache(3, 0, clock::get);
+        cache.put(new Object[] { "a" }, "A");
+        cache.put(new Object[] { "b" }, "B");
+        cache.put(new Object[] { "c" }, "C");
+        cache.get(new Object[] { "a" });
+
+        cache.put(new Object[] { "d" }, "D");
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get(new Object[] { "a" })).isEqualTo("A");
+        assertThat(cache.get(new Object[] { "b" })).isSameAs(MemoCache.MISSING);
+        assertThat(cache.evictions.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndLeaveFirst() {
+        MemoCache cache = new MemoCache(2, 100, clock::get);
+        cache.put(new Object[] { "a" }, "A");
+        clock.set(50);
+        cache.put(new Object[] { "b" }, "B");
+        cache.get(new Object[] { "a" });
+
+        clock.set(100);
+        assertThat(cache.get(new Object[] { "a" })).isSameAs(MemoCache.MISSING);
+        assertThat(cache.get(new Object[] { "b" })).isEqualTo("B");
+
+        cache.put(new Object[] { "c" }, "C");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.expirations.sum()).isEqualTo(1);
+        assertThat(cache.evictions.sum()).isZero();
+    }
+}
@@ -0,0 +1,164 @@
+package com.springboot.app.springboot_aop.aop.coalesce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightGroupTests {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(TimeUnit.SECONDS.toNanos(10));
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> results = submit(group, () -> {
+            executions.incrementAndGet();
+            release.await();
+            return "Hola que tal! Daniel";
+        });
+        awaitWaiters(group);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertThat(result.get()).isEqualTo("Hola que tal! Daniel");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(group.leaders.sum()).isEqualTo(1);
+        assertThat(group.coalesced.sum()).isEqualTo(CALLERS - 1);
+        assertThat(group.inFlight()).isZero();
+    }
+
+    @Test
+    void waitersReceiveTheSameException() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(TimeUnit.SECONDS.toNanos(10));
+        RuntimeException failure = new RuntimeException("Simulando algun error");
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> results = submit(group, () -> {
+            release.await();
+            throw failure;
+        });
+        awaitWaiters(group);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertThat(catchCause(result)).isSameAs(failure);
+        }
+    }
+
+    @Test
+    void waiterRunsItsOwnCallAfterMaxWait() throws Throwable {
+        SingleFlightGroup group = new SingleFlightGroup(TimeUnit.MILLISECONDS.toNanos(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> slow = callers.submit(() -> {
+            try {
+                return group.execute(new Object[] { "Daniel" }, () -> {
+                    release.await();
+                    return "lenta";
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (group.inFlight() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThat(group.execute(new Object[] { "Daniel" }, () -> "propia")).isEqualTo("propia");
+        assertThat(group.timeouts.sum()).isEqualTo(1);
+        release.countDown();
+        assertThat(slow.get()).isEqualTo("lenta");
+    }
+
+    @Test
+    void interruptedWaiterIsCancelledWithoutRunningTheCall() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(0);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> slow = callers.submit(() -> {
+            try {
+                return group.execute(new Object[] { "Daniel" }, () -> {
+                    release.await();
+                    return "lenta";
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (group.inFlight() == 0) {
+            Thread.onSpinWait();
+        }
+        AtomicInteger ownCalls = new AtomicInteger();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> group.execute(new Object[] { "Daniel" }, () -> ownCalls.incrementAndGet()))
+                    .isInstanceOf(CancellationException.class)
+                    .hasCauseInstanceOf(InterruptedException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+        assertThat(ownCalls).hasValue(0);
+        release.countDown();
+        assertThat(slow.get()).isEqualTo("lenta");
+    }
+
+    private List<Future<Object>> submit(SingleFlightGroup group, SingleFlightGroup.Call call) {
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                try {
+                    return group.execute(new Object[] { "Daniel", "Hola que tal!" }, call);
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        return results;
+    }
+
+    /* Espera a que todas las llamadas hayan entrado en execute y sólo una esté ejecutando */
+    private void awaitWaiters(SingleFlightGroup group) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (((ThreadPoolExecutor) callers).getActiveCount() < CALLERS
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+    }
+
+    private static Throwable catchCause(Future<Object> result) throws InterruptedException {
+        try {
+            result.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
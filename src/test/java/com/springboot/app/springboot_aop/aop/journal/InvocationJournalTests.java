@@ -0,0 +1,185 @@
+package com.springboot.app.springboot_aop.aop.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.springboot.app.springboot_aop.aop.journal.JournalReader.JournalEntry;
+import com.springboot.app.springboot_aop.aop.journal.JournalReader.Summary;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderer;
+import com.springboot.app.springboot_aop.aop.logging.ArgumentRenderingProperties;
+import com.springboot.app.springboot_aop.aop.logging.Redacted;
+
+class InvocationJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private JournalProperties properties;
+
+    private Method greet;
+    private Method fail;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        greet = Sample.class.getDeclaredMethod("greet", String.class, String.class);
+        fail = Sample.class.getDeclaredMethod("fail", Integer.class);
+    }
+
+    @Test
+    void roundTripsAcrossRotatedSegments() throws Exception {
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        properties.setMaxSegments(0);
+        InvocationJournal journal = journal();
+
+        for (int i = 0; i < 100; i++) {
+            journal.append(greet, new Object[] { "Daniel", "secreto" + i }, null, 1_000 + i);
+            journal.append(fail, new Object[] { null }, new IllegalStateException(), 5_000);
+        }
+        journal.stop();
+
+        assertThat(JournalReader.segments(directory)).hasSizeGreaterThan(5);
+        List<JournalEntry> entries = JournalReader.readAll(directory);
+        assertThat(entries).hasSize(200);
+        JournalEntry first = entries.get(0);
+        assertThat(first.method()).isEqualTo("Sample.greet(String,String)");
+        assertThat(first.failed()).isFalse();
+        assertThat(first.durationNanos()).isEqualTo(1_000);
+        /* HASH por defecto, y el parámetro @Redacted no se guarda */
+        assertThat(first.args()).containsExactly(String.format("#%08x", "Daniel".hashCode()), "****");
+        JournalEntry last = entries.get(199);
+        assertThat(last.method()).isEqualTo("Sample.fail(Integer)");
+        assertThat(last.exception()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(last.args()).containsExactly("null");
+        assertThat(entries.get(198).durationNanos()).isEqualTo(1_099);
+    }
+
+    @Test
+    void storesValuesOncePerSegmentAndDeletesOldSegments() throws Exception {
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        properties.setMaxSegments(2);
+        properties.setArguments(JournalProperties.ArgumentMode.VALUE);
+        InvocationJournal journal = journal();
+
+        for (int i = 0; i < 200; i++) {
+            journal.append(greet, new Object[] { "Daniel", "secreto" }, null, i);
+        }
+        journal.stop();
+
+        assertThat(JournalReader.segments(directory)).hasSize(2);
+        List<JournalEntry> entries = JournalReader.readAll(directory);
+        /* Firma y valor una vez por segmento, después 40 bytes por llamada */
+        assertThat(entries).hasSizeGreaterThan(30);
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.args()).containsExactly("Daniel", "****"));
+        assertThat(entries.get(entries.size() - 1).durationNanos()).isEqualTo(199);
+    }
+
+    @Test
+    void theJournalThreadDeletesOldSegmentsWithoutStopping() throws Exception {
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        properties.setMaxSegments(2);
+        InvocationJournal journal = journal();
+        try {
+            for (int i = 0; i < 200; i++) {
+                journal.append(greet, new Object[] { "Daniel", "x" }, null, i);
+            }
+
+            /* La llamada que rota no borra nada: lo hace el hilo del diario */
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (JournalReader.segments(directory).size() > 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(JournalReader.segments(directory)).hasSize(2);
+        } finally {
+            journal.stop();
+        }
+        assertThat(JournalReader.readAll(directory)).last().extracting(JournalEntry::durationNanos).isEqualTo(199L);
+    }
+
+    @Test
+    void continuesAfterTheLastSegmentOnRestart() throws Exception {
+        InvocationJournal journal = journal();
+        journal.append(greet, new Object[] { "Daniel", "x" }, null, 1);
+        journal.stop();
+        journal = journal();
+        journal.append(greet, new Object[] { "Andrés", "x" }, null, 2);
+        journal.stop();
+
+        assertThat(JournalReader.segments(directory)).extracting(path -> path.getFileName().toString())
+                .containsExactly("journal-00000000.bin", "journal-00000001.bin");
+        assertThat(JournalReader.readAll(directory)).extracting(JournalEntry::durationNanos).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void recordsAppendedLaterAreWrittenBeforeStopping() throws Exception {
+        InvocationJournal journal = journal();
+        for (int i = 0; i < 100; i++) {
+            journal.appendLater(greet, new Object[] { "Daniel", "x" }, null, i);
+        }
+        journal.stop();
+
+        assertThat(JournalReader.readAll(directory)).extracting(JournalEntry::durationNanos).hasSize(100)
+                .startsWith(0L, 1L).endsWith(99L);
+        assertThat(journal.dropped()).isZero();
+    }
+
+    @Test
+    void readerFiltersAndSummarizes() throws Exception {
+        InvocationJournal journal = journal();
+        journal.append(greet, new Object[] { "Daniel", "x" }, null, 2_000);
+        journal.append(greet, new Object[] { "Daniel", "x" }, null, 4_000);
+        journal.append(fail, new Object[] { 1 }, new IllegalStateException(), 9_000);
+        /* Sin cerrar: el lector ve lo escrito hasta ahora */
+        journal.force();
+
+        Map<String, Summary> summaries = JournalReader.summarize(JournalReader.readAll(directory));
+        assertThat(summaries).containsOnlyKeys("Sample.fail(Integer)", "Sample.greet(String,String)");
+        Summary summary = summaries.get("Sample.greet(String,String)");
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.failures()).isZero();
+        assertThat(summary.averageMicros()).isEqualTo(3.0);
+        assertThat(summary.maxMicros()).isEqualTo(4.0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = JournalReader.run(new String[] { directory.toString(), "--outcome=error", "--summary" },
+                new PrintStream(out, true, StandardCharsets.UTF_8), System.err);
+        assertThat(status).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("Sample.fail(Integer) llamadas=1 fallos=1 media=9.0us max=9.0us" + System.lineSeparator());
+        journal.stop();
+    }
+
+    private InvocationJournal journal() {
+        InvocationJournal journal = new InvocationJournal(properties,
+                new ArgumentRenderer(new ArgumentRenderingProperties()));
+        journal.start();
+        assertThat(journal.isRunning()).isTrue();
+        return journal;
+    }
+
+    static class Sample {
+
+        String greet(String person, @Redacted String phrase) {
+            return person + phrase;
+        }
+
+        String fail(Integer code) {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ArgumentRendererTests {
+
+    private ArgumentRenderingProperties properties;
+
+    private ArgumentRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ArgumentRenderingProperties();
+        renderer = new ArgumentRenderer(properties);
+    }
+
+    @Test
+    void rendersLikeArraysToStringWithinLimits() {
+        Object[] args = { "Daniel", "Hola que tal!", null, 42, List.of("a", "b") };
+
+        assertThat(render(null, args)).isEqualTo(Arrays.toString(args));
+    }
+
+    @Test
+    void capsArgumentLengthAndElementCount() {
+        properties.setMaxLength(4);
+        properties.setMaxElements(2);
+
+        assertThat(render(null, "Daniel", new String[] { "a", "b", "c" }, "x"))
+                .isEqualTo("[Dani..., [a, b, ...(+1)], ...(+1)]");
+    }
+
+    @Test
+    void redactsConfiguredAndAnnotatedParameters() throws Exception {
+        properties.setRedactedParameters(Set.of("person"));
+        Method method = Sample.class.getDeclaredMethod("greet", String.class, String.class, String.class);
+
+        assertThat(render(method, "Daniel", "Hola que tal!", "secreto"))
+                .isEqualTo("[****, Hola que tal!, ****]");
+    }
+
+    @Test
+    void reusesThePerThreadBuffer() {
+        StringBuilder first = renderer.buffer().append("algo");
+
+        assertThat(renderer.buffer()).isSameAs(first).isEmpty();
+    }
+
+    @Test
+    void expandsArrayArgumentsButNotNestedArrays() {
+        String[] nested = { "b" };
+        Object[] array = { "a", nested };
+
+        assertThat(render(null, (Object) array)).isEqualTo("[[a, " + nested + "]]");
+    }
+
+    @Test
+    void stopsRenderingNestedCollectionsAtMaxLength() {
+        properties.setMaxLength(10);
+        List<Object> nested = List.of("abc", "def", "ghi");
+        List<Object> huge = new AbstractList<>() {
+
+            @Override
+            public Object get(int index) {
+                if (index > 3) {
+                    throw new AssertionError("no debería recorrerse entera");
+                }
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return Integer.MAX_VALUE;
+            }
+        };
+
+        assertThat(render(null, List.of(nested, huge))).isEqualTo("[[[abc, def,..., [0, 1, 2, ...]]");
+        assertThat(renderer.appendValue(renderer.buffer(), nested).toString()).isEqualTo("[abc, def,...");
+    }
+
+    @Test
+    void reentrantRenderingDoesNotOverwriteTheLineBeingBuilt() {
+        Object reentrant = new Object() {
+
+            @Override
+            public String toString() {
+                /* Como si el toString() llamara a un método interceptado que registra su línea */
+                StringBuilder inner = renderer.buffer().append("interior ");
+                return renderer.appendArgs(inner, null, new Object[] { "x" }).toString();
+            }
+        };
+        StringBuilder line = renderer.buffer().append("exterior ");
+
+        assertThat(renderer.appendArgs(line, null, new Object[] { reentrant, "y" }).toString())
+                .isEqualTo("exterior [interior [x], y]");
+        assertThat(renderer.buffer()).isSameAs(line);
+    }
+
+    private String render(Method method, Object... args) {
+        return renderer.appendArgs(renderer.buffer(), method, args).toString();
+    }
+
+    static class Sample {
+
+        void greet(String person, String phrase, @Redacted String token) {
+        }
+    }
+}
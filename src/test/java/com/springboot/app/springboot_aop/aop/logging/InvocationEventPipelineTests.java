@@ -0,0 +1,115 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.MeterRegistry;
+
+class InvocationEventPipelineTests {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(InvocationEventPipelineTests.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final InvocationEventProperties properties = new InvocationEventProperties();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void mutableArgumentsAreRenderedWhenTheCallIsMade() throws Exception {
+        InvocationEventPipeline pipeline = pipeline();
+        pipeline.start();
+        List<String> people = new ArrayList<>(List.of("Daniel"));
+        MDC.put("request", "r-1");
+        try {
+            pipeline.publish(logger, InvocationPhase.BEFORE, "greet", greet(), new Object[] { people, "Hola" }, null,
+                    0L);
+        } finally {
+            MDC.clear();
+        }
+        people.add("Ana");
+        pipeline.stop();
+
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getFormattedMessage()).isEqualTo("Antes: greet con los argumentos [[Daniel], Hola]");
+        assertThat(event.getThreadName()).isEqualTo("greeting-aop-events");
+        assertThat(event.getMDCPropertyMap()).containsEntry("request", "r-1")
+                .containsEntry(InvocationEventPipeline.CALLER_THREAD, Thread.currentThread().getName());
+    }
+
+    @Test
+    void aZeroSampleRateKeepsEveryEvent() {
+        properties.setSampleRate(0);
+
+        assertThat(properties.getSampleRate()).isEqualTo(1);
+    }
+
+    @Test
+    void anEventPublishedAfterTheLastDrainIsWrittenByItsProducer() throws Exception {
+        InvocationEventPipeline pipeline = pipeline();
+        pipeline.start();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        /* El productor ya tiene su hueco y se queda mostrando el argumento mientras se para el consumidor */
+        Object slow = new Object() {
+
+            @Override
+            public String toString() {
+                rendering.countDown();
+                try {
+                    stopped.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "lento";
+            }
+        };
+        Thread producer = Thread.ofPlatform().start(() -> pipeline.publish(logger, InvocationPhase.BEFORE, "greet",
+                null, new Object[] { slow }, null, 0L));
+        rendering.await();
+        pipeline.stop();
+        stopped.countDown();
+        producer.join();
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("Antes: greet con los argumentos [lento]");
+    }
+
+    private InvocationEventPipeline pipeline() {
+        return new InvocationEventPipeline(properties, new ArgumentRenderer(new ArgumentRenderingProperties()),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private static Method greet() throws NoSuchMethodException {
+        return Sample.class.getDeclaredMethod("greet", List.class, String.class);
+    }
+
+    static class Sample {
+
+        void greet(List<String> people, String phrase) {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class InvocationEventRingTests {
+
+    @Test
+    void rejectsClaimsWhenFull() {
+        InvocationEventRing ring = new InvocationEventRing(4);
+        for (int i = 0; i < ring.capacity(); i++) {
+            ring.publish(ring.claim());
+        }
+
+        assertThat(ring.claim()).isEqualTo(-1);
+        assertThat(ring.peek()).isNotNull();
+        ring.release();
+        assertThat(ring.claim()).isEqualTo(ring.capacity());
+    }
+
+    @Test
+    void deliversEveryEventFromConcurrentProducersExactlyOnce() throws InterruptedException {
+        InvocationEventRing ring = new InvocationEventRing(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long position;
+                    while ((position = ring.claim()) < 0) {
+                        Thread.yield();
+                    }
+                    ring.slot(position).set(null, InvocationPhase.BEFORE, producer + ":" + i, null, null, null, 0L, 0L);
+                    ring.publish(position);
+                }
+            }));
+        }
+
+        Set<String> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            InvocationEvent event = ring.peek();
+            if (event == null) {
+                Thread.yield();
+                continue;
+            }
+            assertThat(received.add(event.method())).isTrue();
+            ring.release();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ring.size()).isZero();
+        assertThat(ring.peek()).isNull();
+    }
+}
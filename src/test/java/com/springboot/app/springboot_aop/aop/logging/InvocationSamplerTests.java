@@ -0,0 +1,97 @@
+package com.springboot.app.springboot_aop.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.springboot.app.springboot_aop.aop.logging.InvocationEventProperties.Sampling;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+class InvocationSamplerTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void ratioKeepsEveryPhaseOfOneInNCalls() throws Exception {
+        InvocationSampler sampler = sampler(Sampling.Mode.RATIO);
+        Method sayHello = sayHello();
+
+        List<Long> before = new ArrayList<>();
+        List<Long> returning = new ArrayList<>();
+        for (int call = 0; call < 7; call++) {
+            before.add(sampler.sample(sayHello, InvocationPhase.BEFORE));
+            returning.add(sampler.sample(sayHello, InvocationPhase.AROUND_RETURN));
+        }
+
+        /* Llamadas 0, 3 y 6: cada línea escrita lleva las dos omitidas antes */
+        List<Long> expected = List.of(0L, -1L, -1L, 2L, -1L, -1L, 2L);
+        assertThat(before).isEqualTo(expected);
+        assertThat(returning).isEqualTo(expected);
+        assertThat(sampler.suppressed(sayHello)).isEqualTo(8);
+    }
+
+    @Test
+    void errorLinesAreAlwaysLoggedAndKeepThePhasesAligned() throws Exception {
+        InvocationSampler sampler = sampler(Sampling.Mode.RATIO);
+        Method sayHello = sayHello();
+
+        /* Llamada 0 correcta, 1 y 2 fallan, 3 correcta */
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.AROUND_RETURN)).isZero();
+        for (int call = 1; call <= 2; call++) {
+            assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isEqualTo(InvocationSampler.SUPPRESS);
+            assertThat(sampler.sample(sayHello, InvocationPhase.AROUND_ERROR)).isZero();
+            /* Sólo las líneas de error: el resto de la llamada fallida sigue el muestreo */
+            assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isEqualTo(InvocationSampler.SUPPRESS);
+        }
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isEqualTo(2);
+        assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isEqualTo(2);
+        assertThat(sampler.sample(sayHello, InvocationPhase.AROUND_RETURN)).isZero();
+    }
+
+    @Test
+    void rateAllowsABurstAndRefillsOverTime() throws Exception {
+        InvocationSampler sampler = sampler(Sampling.Mode.RATE);
+        Method sayHello = sayHello();
+
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isEqualTo(InvocationSampler.SUPPRESS);
+        assertThat(sampler.sample(sayHello, InvocationPhase.AROUND_ERROR)).isZero();
+
+        /* rate=4: una línea nueva cada 250 ms */
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isEqualTo(1);
+        assertThat(sampler.sample(sayHello, InvocationPhase.BEFORE)).isEqualTo(InvocationSampler.SUPPRESS);
+
+        /* Tras un rato parado vuelve a tener la ráfaga completa, no más */
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isZero();
+        assertThat(sampler.sample(sayHello, InvocationPhase.AFTER)).isEqualTo(InvocationSampler.SUPPRESS);
+    }
+
+    private InvocationSampler sampler(Sampling.Mode mode) {
+        Sampling sampling = new Sampling();
+        sampling.setMode(mode);
+        sampling.setRatio(3);
+        sampling.setRate(4);
+        sampling.setBurst(2);
+        return new InvocationSampler(sampling, clock::get,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private static Method sayHello() throws NoSuchMethodException {
+        return GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class);
+    }
+}
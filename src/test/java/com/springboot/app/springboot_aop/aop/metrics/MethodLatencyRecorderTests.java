@@ -0,0 +1,58 @@
+package com.springboot.app.springboot_aop.aop.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.springboot.app.springboot_aop.services.GreetingService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MethodLatencyRecorderTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MethodLatencyRecorder recorder = new MethodLatencyRecorder(new MethodLatencyProperties(),
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void publishesPercentilesPerOutcomeOnRotation() throws Exception {
+        Method sayHello = GreetingService.class.getMethod("sayHello", String.class, String.class);
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record(sayHello, i * 1_000L, true);
+        }
+        recorder.record(sayHello, 5_000_000L, false);
+
+        assertThat(success().get("count")).isEqualTo(0L);
+        recorder.rotate();
+
+        assertThat(success().get("count")).isEqualTo(1000L);
+        assertThat((double) success().get("p50")).isCloseTo(0.5, Offset.offset(0.01));
+        assertThat((double) success().get("max")).isCloseTo(1.0, Offset.offset(0.01));
+        assertThat(registry.get("greeting.aop.latency.count").tag("outcome", "failure").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void resetDiscardsRecordedLatencies() throws Exception {
+        Method sayHello = GreetingService.class.getMethod("sayHello", String.class, String.class);
+        recorder.record(sayHello, 1_000L, true);
+        recorder.reset();
+        recorder.rotate();
+
+        assertThat(success().get("count")).isEqualTo(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> success() {
+        Map<String, Object> methods = (Map<String, Object>) recorder.snapshot().get("methods");
+        Map<String, Object> outcomes = (Map<String, Object>) methods.get("GreetingService.sayHello(String,String)");
+        return (Map<String, Object>) outcomes.get("success");
+    }
+}
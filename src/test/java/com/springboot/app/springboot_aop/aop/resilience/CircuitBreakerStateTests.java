@@ -0,0 +1,192 @@
+package com.springboot.app.springboot_aop.aop.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.springboot.app.springboot_aop.aop.resilience.CircuitBreakerState.State;
+
+class CircuitBreakerStateTests {
+
+    private static final long OPEN_NANOS = 1_000;
+
+    private final AtomicLong clock = new AtomicLong(5_000);
+
+    /* 50 % de una ventana de 10 llamadas, 2 llamadas de prueba */
+    private final CircuitBreakerState breaker = new CircuitBreakerState(50, 10, OPEN_NANOS, 2, clock::get);
+
+    @Test
+    void opensOnceTheWindowReachesTheFailureRate() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+            call(true);
+        }
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.windowFailures()).isEqualTo(4);
+
+        call(true);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+        assertThat(breaker.rejected.sum()).isEqualTo(1);
+        assertThat(breaker.opened.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void failuresOfAFullWindowAreForgotten() {
+        for (int i = 0; i < 10; i++) {
+            call(i < 4);
+        }
+        assertThat(breaker.windowCalls()).isEqualTo(10);
+
+        /* La llamada siguiente empieza otra ventana */
+        call(true);
+        assertThat(breaker.windowCalls()).isOne();
+        assertThat(breaker.windowFailures()).isOne();
+        for (int i = 0; i < 3; i++) {
+            call(true);
+        }
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void aThresholdAbove100NeverOpens() {
+        CircuitBreakerState never = new CircuitBreakerState(101, 10, OPEN_NANOS, 2, clock::get);
+
+        for (int i = 0; i < 25; i++) {
+            never.onResult(never.tryAcquire(), true);
+        }
+
+        assertThat(never.state()).isEqualTo(State.CLOSED);
+        assertThat(never.windowFailures()).isEqualTo(5);
+        assertThat(never.opened.sum()).isZero();
+    }
+
+    @Test
+    void halfOpenLetsTrialCallsThroughAndClosesAfterThem() {
+        open();
+        clock.addAndGet(OPEN_NANOS);
+
+        long first = acquire();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        long second = acquire();
+        /* Sólo dos llamadas de prueba a la vez */
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+
+        breaker.onResult(first, false);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(second, false);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.windowCalls()).isZero();
+    }
+
+    @Test
+    void aFailedTrialCallReopens() {
+        open();
+        clock.addAndGet(OPEN_NANOS);
+        long trial = acquire();
+
+        breaker.onResult(trial, true);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.remainingOpenNanos()).isEqualTo(OPEN_NANOS);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+        assertThat(breaker.opened.sum()).isEqualTo(2);
+    }
+
+    @Test
+    void aCallStartedBeforeOpeningDoesNotCountAsATrialCall() {
+        long slow = acquire();
+        open();
+        clock.addAndGet(OPEN_NANOS);
+        long trial = acquire();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+        /* Ni su fallo vuelve a abrir el circuito... */
+        breaker.onResult(slow, true);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.opened.sum()).isEqualTo(1);
+        /* ...ni su éxito ocupa el sitio de una llamada de prueba */
+        breaker.onResult(slow, false);
+        breaker.onResult(trial, false);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(acquire(), false);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void aTrialCallFinishingAfterTheCircuitReopenedIsNotCounted() {
+        open();
+        clock.addAndGet(OPEN_NANOS);
+        long failing = acquire();
+        breaker.onResult(acquire(), true);
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+
+        breaker.onResult(failing, true);
+
+        assertThat(breaker.opened.sum()).isEqualTo(2);
+        assertThat(breaker.remainingOpenNanos()).isEqualTo(OPEN_NANOS);
+    }
+
+    @Test
+    void aTrialCallRejectedFurtherInReturnsItsSlot() {
+        open();
+        clock.addAndGet(OPEN_NANOS);
+        long rejectedInside = acquire();
+        long trial = acquire();
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+
+        breaker.release(rejectedInside);
+
+        /* No cuenta como éxito: hacen falta dos llamadas de prueba que terminen bien */
+        breaker.onResult(trial, false);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(acquire(), false);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void releasingInTheClosedStateCountsNothing() {
+        breaker.release(acquire());
+
+        assertThat(breaker.windowCalls()).isZero();
+    }
+
+    @Test
+    void trialCallsThatNeverFinishAreGivenUpAfterTheOpenDuration() {
+        open();
+        clock.addAndGet(OPEN_NANOS);
+        long hung = acquire();
+        acquire();
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+
+        clock.addAndGet(OPEN_NANOS);
+        long trial = acquire();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        /* Las de la ronda anterior ya no cuentan */
+        breaker.onResult(hung, true);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(trial, false);
+        breaker.onResult(acquire(), false);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    private void open() {
+        for (int i = 0; i < 5; i++) {
+            call(true);
+        }
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+
+    private void call(boolean failed) {
+        breaker.onResult(acquire(), failed);
+    }
+
+    private long acquire() {
+        long permit = breaker.tryAcquire();
+        assertThat(permit).isNotEqualTo(CircuitBreakerState.REJECTED);
+        return permit;
+    }
+}
@@ -0,0 +1,115 @@
+package com.springboot.app.springboot_aop.aop.toggle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+
+import com.springboot.app.springboot_aop.aop.GreetingAspect;
+import com.springboot.app.springboot_aop.aop.GreetingFooAspect;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+
+class AdviceTogglesTests {
+
+    private static final long GREETING_ASPECT = AdviceId.AFTER_THROWING.mask() | AdviceId.AFTER_RETURNING.mask()
+            | AdviceId.AFTER.mask() | AdviceId.AROUND.mask() | AdviceId.BEFORE.mask() | AdviceId.BATCH_AROUND.mask()
+            | AdviceId.REACTIVE_AROUND.mask();
+
+    @Test
+    void everyAdviceMethodHasAnIdBoundToItsPointcut() {
+        List<String> declared = Stream.of(GreetingFooAspect.class, GreetingAspect.class)
+                .flatMap(aspect -> Stream.of(aspect.getDeclaredMethods())
+                        .map(method -> advice(aspect, method)))
+                .filter(advice -> advice != null)
+                .sorted()
+                .toList();
+        List<String> ids = Stream.of(AdviceId.values())
+                .map(id -> id.id() + " " + id.pointcut())
+                .sorted()
+                .toList();
+
+        assertThat(ids).isEqualTo(declared);
+    }
+
+    @Test
+    void selectorsMatchAdviceAspectsAndPointcuts() {
+        assertThat(AdviceId.select("GreetingAspect.loggerBefore")).isEqualTo(AdviceId.BEFORE.mask());
+        assertThat(AdviceId.select("GreetingAspect")).isEqualTo(GREETING_ASPECT);
+        assertThat(AdviceId.select("greetingBatchPointCut")).isEqualTo(AdviceId.FOO_BATCH_BEFORE.mask()
+                | AdviceId.FOO_BATCH_AFTER.mask() | AdviceId.BATCH_AROUND.mask());
+        assertThat(AdviceId.select("*")).isEqualTo(AdviceId.ALL);
+        assertThat(AdviceId.select(null)).isEqualTo(AdviceId.ALL);
+        assertThatThrownBy(() -> AdviceId.select("GreetingAspect.loggerSomething"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void methodRulesOverrideTheGlobalState() throws Exception {
+        AdviceToggles toggles = new AdviceToggles(new AdviceToggleProperties());
+        Method sayHello = GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class);
+        Method sayHelloThrowAnError = GreetingServiceImpl.class.getMethod("sayHelloThrowAnError", String.class,
+                String.class);
+        assertThat(toggles.disabled(sayHello)).isZero();
+
+        toggles.set("GreetingAspect", null, false);
+        toggles.set("GreetingAspect.loggerAround", "GreetingServiceImpl.sayHello", true);
+        toggles.set("GreetingFooAspect", "GreetingServiceImpl.sayHello(String,String)", false);
+
+        assertThat(toggles.disabled(sayHello))
+                .isEqualTo((GREETING_ASPECT & ~AdviceId.AROUND.mask()) | AdviceId.select("GreetingFooAspect"));
+        assertThat(toggles.disabled(sayHelloThrowAnError)).isEqualTo(GREETING_ASPECT);
+
+        /* Un cambio global sustituye a las reglas por método de esos advice */
+        toggles.set(null, null, true);
+        assertThat(toggles.disabled(sayHello)).isZero();
+        assertThat(toggles.disabled(sayHelloThrowAnError)).isZero();
+    }
+
+    @Test
+    void resetRestoresTheConfiguredState() throws Exception {
+        AdviceToggleProperties properties = new AdviceToggleProperties();
+        properties.setDisabled(List.of("GreetingAspect.loggerBefore"));
+        AdviceToggles toggles = new AdviceToggles(properties);
+        Method sayHello = GreetingServiceImpl.class.getMethod("sayHello", String.class, String.class);
+        assertThat(toggles.disabled(sayHello)).isEqualTo(AdviceId.BEFORE.mask());
+
+        toggles.set(null, "GreetingServiceImpl.sayHello", false);
+        assertThat(toggles.disabled(sayHello)).isEqualTo(AdviceId.ALL);
+
+        toggles.reset();
+        assertThat(toggles.disabled(sayHello)).isEqualTo(AdviceId.BEFORE.mask());
+        assertThatThrownBy(() -> toggles.set(null, "sayHello", false)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /* "Aspecto.metodo pointcut" de un método de advice, o null si no lo es */
+    private static String advice(Class<?> aspect, Method method) {
+        String pointcut = null;
+        if (method.isAnnotationPresent(Before.class)) {
+            pointcut = method.getAnnotation(Before.class).value();
+        } else if (method.isAnnotationPresent(After.class)) {
+            pointcut = method.getAnnotation(After.class).value();
+        } else if (method.isAnnotationPresent(Around.class)) {
+            pointcut = method.getAnnotation(Around.class).value();
+        } else if (method.isAnnotationPresent(AfterReturning.class)) {
+            AfterReturning annotation = method.getAnnotation(AfterReturning.class);
+            pointcut = annotation.pointcut().isEmpty() ? annotation.value() : annotation.pointcut();
+        } else if (method.isAnnotationPresent(AfterThrowing.class)) {
+            AfterThrowing annotation = method.getAnnotation(AfterThrowing.class);
+            pointcut = annotation.pointcut().isEmpty() ? annotation.value() : annotation.pointcut();
+        }
+        if (pointcut == null) {
+            return null;
+        }
+        String name = pointcut.substring(pointcut.indexOf('.') + 1, pointcut.indexOf('('));
+        return aspect.getSimpleName() + "." + method.getName() + " " + name;
+    }
+}
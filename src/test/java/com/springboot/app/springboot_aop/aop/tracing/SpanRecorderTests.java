@@ -0,0 +1,182 @@
+package com.springboot.app.springboot_aop.aop.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class SpanRecorderTests {
+
+    @Test
+    void nestedSpansShareTheTraceAndPointToTheirParent() {
+        SpanRecorder recorder = recorder(16);
+
+        int request = recorder.open(SpanKind.REQUEST, "peticion");
+        int advice = recorder.open(SpanKind.ADVICE, "advice");
+        int body = recorder.open(SpanKind.BODY, "cuerpo");
+        recorder.close(body, false);
+        recorder.close(advice, false);
+        recorder.close(request, false);
+        int next = recorder.open(SpanKind.REQUEST, "otra");
+        recorder.close(next, true);
+
+        List<Map<String, Object>> traces = traces(recorder, 10);
+        assertThat(traces).hasSize(2);
+        assertThat(spans(traces.get(0))).extracting(span -> span.get("name") + " " + span.get("error"))
+                .containsExactly("otra true");
+
+        List<Map<String, Object>> spans = spans(traces.get(1));
+        assertThat(spans).extracting(span -> span.get("name")).containsExactly("peticion", "advice", "cuerpo");
+        assertThat(spans.get(0).get("parentId")).isEqualTo(0L);
+        assertThat(spans.get(1).get("parentId")).isEqualTo(spans.get(0).get("spanId"));
+        assertThat(spans.get(2).get("parentId")).isEqualTo(spans.get(1).get("spanId"));
+        assertThat(traces.get(1).get("traceId")).isEqualTo(spans.get(0).get("spanId"));
+    }
+
+    @Test
+    void closingAnOuterSpanDiscardsTheSpansLeftOpenAboveIt() {
+        SpanRecorder recorder = recorder(16);
+
+        int request = recorder.open(SpanKind.REQUEST, "peticion");
+        int advice = recorder.open(SpanKind.ADVICE, "advice");
+        recorder.close(request, false);
+        recorder.close(advice, false);
+        int next = recorder.open(SpanKind.REQUEST, "otra");
+        recorder.close(next, false);
+
+        assertThat(recorder.recorded()).isEqualTo(2);
+        assertThat(traces(recorder, 10)).extracting(trace -> spans(trace).size()).containsExactly(1, 1);
+    }
+
+    @Test
+    void theRingKeepsOnlyTheMostRecentSpans() {
+        SpanRecorder recorder = recorder(4);
+        for (int i = 0; i < 10; i++) {
+            recorder.close(recorder.open(SpanKind.REQUEST, "peticion " + i), false);
+        }
+
+        assertThat(recorder.recorded()).isEqualTo(10);
+        assertThat(traces(recorder, 10)).extracting(trace -> spans(trace).get(0).get("name"))
+                .containsExactly("peticion 9", "peticion 8", "peticion 7", "peticion 6");
+
+        recorder.clear();
+        assertThat(traces(recorder, 10)).isEmpty();
+    }
+
+    @Test
+    void concurrentWritersNeverLeaveATornSpan() throws Exception {
+        SpanRecorder recorder = recorder(4);
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> torn = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                /* El nombre dice quién escribió el span y de qué tipo es */
+                String request = "REQUEST " + Thread.currentThread().threadId();
+                String body = "BODY " + Thread.currentThread().threadId();
+                awaitQuietly(start);
+                for (int i = 0; i < 20_000; i++) {
+                    int outer = recorder.open(SpanKind.REQUEST, request);
+                    recorder.close(recorder.open(SpanKind.BODY, body), false);
+                    recorder.close(outer, false);
+                }
+            }));
+        }
+        Thread reader = Thread.ofPlatform().start(() -> {
+            awaitQuietly(start);
+            while (running.get()) {
+                for (Map<String, Object> trace : traces(recorder, Integer.MAX_VALUE)) {
+                    for (Map<String, Object> span : spans(trace)) {
+                        if (!consistent(trace, span)) {
+                            torn.add(trace.get("traceId") + " " + span);
+                        }
+                    }
+                }
+            }
+        });
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        reader.join();
+
+        assertThat(torn).isEmpty();
+        assertThat(recorder.recorded()).isEqualTo(writers * 40_000L);
+        for (Map<String, Object> trace : traces(recorder, Integer.MAX_VALUE)) {
+            assertThat(spans(trace)).allSatisfy(span -> assertThat(consistent(trace, span)).isTrue());
+        }
+    }
+
+    @Test
+    void aSlotHasOneWriterAtATime() {
+        SpanRecorder.Slot slot = new SpanRecorder.Slot();
+
+        assertThat(slot.claim(4)).isTrue();
+        /* La vuelta siguiente del cursor no entra mientras se escribe */
+        assertThat(slot.claim(8)).isFalse();
+        assertThat(slot.read()).isNull();
+        slot.publish(4);
+        /* Ni un escritor más antiguo que el span guardado */
+        assertThat(slot.claim(0)).isFalse();
+        assertThat(slot.read()).isNotNull();
+        assertThat(slot.claim(8)).isTrue();
+    }
+
+    /* El tipo, el hilo y el padre del span coinciden con los que indica su nombre */
+    private static boolean consistent(Map<String, Object> trace, Map<String, Object> span) {
+        String[] name = ((String) span.get("name")).split(" ");
+        if (!name[0].equals(span.get("kind")) || !name[1].equals(String.valueOf(span.get("thread")))) {
+            return false;
+        }
+        if (name[0].equals("REQUEST")) {
+            return span.get("parentId").equals(0L) && span.get("spanId").equals(trace.get("traceId"));
+        }
+        return !span.get("parentId").equals(0L) && !span.get("spanId").equals(trace.get("traceId"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void disabledRecorderOpensNoSpans() {
+        TracingProperties properties = new TracingProperties();
+        properties.setEnabled(false);
+        SpanRecorder recorder = new SpanRecorder(properties);
+
+        int span = recorder.open(SpanKind.REQUEST, "peticion");
+        recorder.close(span, false);
+
+        assertThat(span).isEqualTo(SpanRecorder.NO_SPAN);
+        assertThat(recorder.recorded()).isZero();
+    }
+
+    private static SpanRecorder recorder(int capacity) {
+        TracingProperties properties = new TracingProperties();
+        properties.setCapacity(capacity);
+        return new SpanRecorder(properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> traces(SpanRecorder recorder, int limit) {
+        return (List<Map<String, Object>>) recorder.snapshot(limit).get("traces");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> spans(Map<String, Object> trace) {
+        return (List<Map<String, Object>>) trace.get("spans");
+    }
+}
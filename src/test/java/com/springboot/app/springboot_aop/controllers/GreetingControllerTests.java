@@ -0,0 +1,233 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.springboot.app.springboot_aop.aop.metrics.MethodErrorCounter;
+import com.springboot.app.springboot_aop.aop.resilience.ResilienceAspect;
+import com.springboot.app.springboot_aop.aop.tracing.SpanRecorder;
+import com.springboot.app.springboot_aop.services.GreetingServiceException;
+import com.springboot.app.springboot_aop.services.GreetingServiceImpl;
+import com.springboot.app.springboot_aop.services.ReactiveGreetingServiceImpl;
+
+@SpringBootTest(properties = "greeting.aop.resilience.enabled=true")
+@AutoConfigureMockMvc
+class GreetingControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MethodErrorCounter errorCounter;
+
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    @Autowired
+    private ResilienceAspect resilienceAspect;
+
+    @Autowired
+    private GreetingResponseConverter greetingResponseConverter;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Test
+    void greetingsStreamsOneLinePerElementAndSummary() throws Exception {
+        String body = """
+                [{"person": "Daniel", "phrase": "Hola que tal!"},
+                 {"person": "Ana", "phrase": "Buenos dias", "extra": {"ignorado": [1, 2]}},
+                 {"person": "Luis"}]
+                """;
+
+        assertThat(postGreetings(MediaType.APPLICATION_JSON, body)).containsExactly(
+                "{\"person\":\"Daniel\",\"greeting\":\"Hola que tal! Daniel\"}",
+                "{\"person\":\"Ana\",\"greeting\":\"Buenos dias Ana\"}",
+                "{\"person\":\"Luis\",\"error\":\"person y phrase son obligatorios\"}",
+                "{\"summary\":{\"greetings\":2,\"failures\":1}}");
+    }
+
+    @Test
+    void greetingsAcceptsNdjson() throws Exception {
+        String body = IntStream.range(0, 1_000)
+                .mapToObj(i -> "{\"person\": \"Daniel" + i + "\", \"phrase\": \"Hola\"}")
+                .collect(Collectors.joining("\n"));
+
+        List<String> lines = postGreetings(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(lines).hasSize(1_001);
+        assertThat(lines.get(999)).isEqualTo("{\"person\":\"Daniel999\",\"greeting\":\"Hola Daniel999\"}");
+        assertThat(lines.get(1_000)).isEqualTo("{\"summary\":{\"greetings\":1000,\"failures\":0}}");
+    }
+
+    @Test
+    void greetingsEndsWithAnErrorLineWhenALaterElementIsInvalid() throws Exception {
+        assertThat(postGreetings(MediaType.APPLICATION_JSON, "[{\"person\": \"Daniel\", \"phrase\": \"Hola\"}, 1]"))
+                .containsExactly("{\"person\":\"Daniel\",\"greeting\":\"Hola Daniel\"}",
+                        "{\"error\":\"invalid_request\",\"message\":"
+                                + "\"Se esperaba un objeto {\\\"person\\\", \\\"phrase\\\"} y se encontro VALUE_NUMBER_INT\"}");
+
+        List<String> ndjson = postGreetings(MediaType.APPLICATION_NDJSON,
+                "{\"person\": \"Daniel\", \"phrase\": \"Hola\"}\n{\"person\": ");
+        assertThat(ndjson).hasSize(2);
+        assertThat(ndjson.get(1)).startsWith("{\"error\":\"invalid_request\",\"message\":");
+    }
+
+    @Test
+    void greetingsRejectsInputThatIsNotAnArrayOrObjects() throws Exception {
+        mockMvc.perform(post("/greetings").contentType(MediaType.APPLICATION_JSON).content("\"Daniel\""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void greetingIsWrittenAsCompactJson() throws Exception {
+        mockMvc.perform(get("/greeting"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("{\"greeting\":\"Hola que tal! Daniel\"}"));
+
+        /* Lo escribe GreetingResponseConverter y no Jackson */
+        List<HttpMessageConverter<?>> converters = handlerAdapter.getMessageConverters();
+        assertThat(greetingResponseConverter.isDirect()).isTrue();
+        assertThat(converters.indexOf(greetingResponseConverter)).isNotNegative()
+                .isLessThan(converters.indexOf(converters.stream()
+                        .filter(MappingJackson2HttpMessageConverter.class::isInstance).findFirst().orElseThrow()));
+    }
+
+    @Test
+    void greetingErrorIsMappedToCompactJsonAndCounted() throws Exception {
+        Method sayHelloThrowAnError = GreetingServiceImpl.class.getMethod("sayHelloThrowAnError", String.class,
+                String.class);
+        long before = errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class);
+
+        mockMvc.perform(get("/greeting-error"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"error\":\"greeting_failed\",\"message\":\"Simulando algun error\"}", true));
+
+        assertThat(errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class)).isEqualTo(before + 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void greetingErrorOpensTheCircuitAndFailsFast() throws Exception {
+        Method sayHelloThrowAnError = GreetingServiceImpl.class.getMethod("sayHelloThrowAnError", String.class,
+                String.class);
+        try {
+            int failures = 0;
+            while (mockMvc.perform(get("/greeting-error")).andReturn().getResponse().getStatus() == 500) {
+                assertThat(++failures).isLessThanOrEqualTo(20);
+            }
+            long errors = errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class);
+
+            mockMvc.perform(get("/greeting-error"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().json("{\"error\":\"circuit_open\","
+                            + "\"message\":\"GreetingServiceImpl.sayHelloThrowAnError(String,String): circuito abierto\"}",
+                            true));
+
+            /* Rechazada antes de GreetingAspect: ni se ejecuta ni se cuenta el error */
+            assertThat(errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class)).isEqualTo(errors);
+            Map<String, Object> methods = (Map<String, Object>) resilienceAspect.snapshot().get("methods");
+            Map<String, Object> breaker = (Map<String, Object>) ((Map<String, Object>) methods
+                    .get("GreetingServiceImpl.sayHelloThrowAnError(String,String)")).get("circuitBreaker");
+            assertThat(breaker.get("state")).isEqualTo("OPEN");
+            assertThat((Long) breaker.get("rejected")).isPositive();
+        } finally {
+            resilienceAspect.reset();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void greetingErrorRecordsNestedSpans() throws Exception {
+        mockMvc.perform(get("/greeting-error")).andExpect(status().isInternalServerError());
+
+        List<Map<String, Object>> traces = (List<Map<String, Object>>) spanRecorder.snapshot(1).get("traces");
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) traces.get(0).get("spans");
+
+        assertThat(spans).extracting(span -> span.get("kind") + " " + span.get("name") + " " + span.get("error"))
+                .containsExactly(
+                        "REQUEST GreetingController.greetingError() true",
+                        "ADVICE GreetingServiceImpl.sayHelloThrowAnError(String,String) true",
+                        "BODY GreetingServiceImpl.sayHelloThrowAnError(String,String) true");
+        assertThat(spans.get(0).get("parentId")).isEqualTo(0L);
+        assertThat(spans.get(1).get("parentId")).isEqualTo(spans.get(0).get("spanId"));
+        assertThat(spans.get(2).get("parentId")).isEqualTo(spans.get(1).get("spanId"));
+        assertThat((Map<String, Object>) traces.get(0).get("selfMicros")).containsOnlyKeys("request", "advice", "body");
+    }
+
+    @Test
+    void reactiveGreetingCompletesAsynchronously() throws Exception {
+        MvcResult started = mockMvc.perform(get("/reactive/greeting"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"greeting\":\"Hola que tal! Daniel\"}", true));
+    }
+
+    @Test
+    void reactiveGreetingErrorIsMappedAndCountedWhenTheMonoFails() throws Exception {
+        Method sayHelloThrowAnError = ReactiveGreetingServiceImpl.class.getMethod("sayHelloThrowAnError",
+                String.class, String.class);
+        long before = errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class);
+
+        MvcResult started = mockMvc.perform(get("/reactive/greeting-error"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().json("{\"error\":\"greeting_failed\",\"message\":\"Simulando algun error\"}", true));
+
+        assertThat(errorCounter.count(sayHelloThrowAnError, GreetingServiceException.class)).isEqualTo(before + 1);
+    }
+
+    @Test
+    void reactiveGreetingsStreamOneLinePerPerson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/reactive/greetings").param("person", "Daniel", "Ana"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(response.lines()).containsExactly("{\"greeting\":\"Hola que tal! Daniel\"}",
+                "{\"greeting\":\"Hola que tal! Ana\"}");
+    }
+
+    private List<String> postGreetings(MediaType contentType, String body) throws Exception {
+        MvcResult started = mockMvc.perform(post("/greetings").contentType(contentType).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(response).endsWith("\n");
+        return response.lines().toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.springboot.app.springboot_aop.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+class GreetingResponseConverterTests {
+
+    /* Como el de Spring Boot por defecto */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final GreetingResponseConverter converter = new GreetingResponseConverter(objectMapper);
+
+    @Test
+    void writesTheSameBytesAsJacksonWritingTheMap() throws Exception {
+        List<String> greetings = new ArrayList<>(List.of("", "Hola que tal! Daniel", "comillas \" y barra \\",
+                "barra / sin escapar", "Buenos días, Ñandú", "€ y 😀", "a b c", "퟿￿",
+                "a\ud83d", "\ude00b", "\ude00\ud83d", GreetingResponseConverter.PROBE, "x".repeat(10_000)));
+        for (char c = 0; c < 0x80; c++) {
+            greetings.add("<" + c + ">");
+        }
+
+        assertThat(converter.isDirect()).isTrue();
+        for (String greeting : greetings) {
+            byte[] expected = new ObjectMapper().writeValueAsBytes(Collections.singletonMap("greeting", greeting));
+            assertThat(write(converter, greeting)).as(greeting).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void delegatesANullGreetingToTheObjectMapper() throws Exception {
+        assertThat(write(converter, null)).isEqualTo("{\"greeting\":null}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void delegatesEverythingWhenTheObjectMapperWritesDifferently() throws Exception {
+        ObjectMapper indenting = Jackson2ObjectMapperBuilder.json().featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+        GreetingResponseConverter fallback = new GreetingResponseConverter(indenting);
+
+        assertThat(fallback.isDirect()).isFalse();
+        assertThat(write(fallback, "Hola que tal! Daniel")).isEqualTo(indenting.writeValueAsBytes(
+                new GreetingResponse("Hola que tal! Daniel")));
+    }
+
+    @Test
+    void onlyWritesGreetingResponses() {
+        assertThat(converter.canWrite(GreetingResponse.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(GreetingResponse.class, MediaType.APPLICATION_XML)).isFalse();
+        assertThat(converter.canWrite(Object.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(GreetingResponse.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private static byte[] write(GreetingResponseConverter converter, String greeting) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(new GreetingResponse(greeting), MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsBytes();
+    }
+}
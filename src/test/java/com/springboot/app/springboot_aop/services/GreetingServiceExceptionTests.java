@@ -0,0 +1,39 @@
+package com.springboot.app.springboot_aop.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.springboot.app.springboot_aop.services.GreetingServiceException.Mode;
+
+class GreetingServiceExceptionTests {
+
+    private static final GreetingServiceException PREALLOCATED = GreetingServiceException.stackless("Simulando algun error");
+
+    @Test
+    void fullModeFillsTheStackTrace() {
+        GreetingServiceException e = GreetingServiceException.create(Mode.FULL, PREALLOCATED);
+
+        assertThat(e).isNotSameAs(PREALLOCATED).hasMessage("Simulando algun error");
+        assertThat(e.getStackTrace()).isNotEmpty();
+    }
+
+    @Test
+    void stacklessModeSkipsTheStackTrace() {
+        GreetingServiceException e = GreetingServiceException.create(Mode.STACKLESS, PREALLOCATED);
+
+        assertThat(e).isNotSameAs(PREALLOCATED).hasMessage("Simulando algun error");
+        assertThat(e.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void preallocatedModeReusesAnImmutableInstance() {
+        GreetingServiceException e = GreetingServiceException.create(Mode.PREALLOCATED, PREALLOCATED);
+        e.addSuppressed(new IllegalStateException());
+        e.setStackTrace(new Throwable().getStackTrace());
+
+        assertThat(e).isSameAs(PREALLOCATED);
+        assertThat(e.getSuppressed()).isEmpty();
+        assertThat(e.getStackTrace()).isEmpty();
+    }
+}